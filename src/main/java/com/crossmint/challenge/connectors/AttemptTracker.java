@@ -0,0 +1,43 @@
+package com.crossmint.challenge.connectors;
+
+import com.crossmint.challenge.model.AstralObject;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps track of the attempts made to send a single request and the last status code received,
+ * so the final {@link PublishResult.CellResult} can be reported once all retries are done.
+ */
+class AttemptTracker {
+
+    private final AtomicInteger attempts = new AtomicInteger();
+    private volatile int lastStatusCode = PublishResult.NO_STATUS;
+
+    void recordAttempt() {
+        attempts.incrementAndGet();
+    }
+
+    void recordStatusCode(int statusCode) {
+        lastStatusCode = statusCode;
+    }
+
+    int getAttempts() {
+        return attempts.get();
+    }
+
+    int getLastStatusCode() {
+        return lastStatusCode;
+    }
+
+    PublishResult.CellResult toCellResult(AstralObject astralObject, Throwable error) {
+        PublishResult.Outcome outcome;
+        if (error != null) {
+            outcome = PublishResult.Outcome.EXHAUSTED;
+        } else if (lastStatusCode / 100 == 2) {
+            outcome = PublishResult.Outcome.SUCCEEDED;
+        } else {
+            outcome = PublishResult.Outcome.REJECTED;
+        }
+        return new PublishResult.CellResult(astralObject, outcome, getAttempts(), getLastStatusCode());
+    }
+}
@@ -0,0 +1,33 @@
+package com.crossmint.challenge.connectors;
+
+/**
+ * Configures request hedging in {@link MegaverseConnection}: when a request has not completed after the given
+ * latency percentile of its endpoint, a duplicate request is sent and the first response wins.
+ * <p>
+ * Hedging is only safe for idempotent requests, like creating an astral object on a given cell.
+ *
+ * @param percentile          the latency percentile of the endpoint (between 0 and 1) after which a request is hedged.
+ * @param minSamples          the minimum number of latency samples of an endpoint before its requests are hedged.
+ * @param maxHedgeRatio       the maximum ratio of hedged requests over the number of requests that were not
+ *                            rate-limited, so hedging does not add too much pressure to the rate-limited API.
+ * @param rateLimitCooldownMs the time after a rate-limited (429) response during which no request is hedged.
+ */
+public record HedgingPolicy(double percentile, int minSamples, double maxHedgeRatio, long rateLimitCooldownMs) {
+
+    public static final HedgingPolicy DEFAULT = new HedgingPolicy(0.95, 20, 0.1, MegaverseConnection.MIN_RETRY_DELAY_MS);
+
+    public HedgingPolicy {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("Percentile must be in (0, 1]: " + percentile);
+        }
+        if (minSamples < 1) {
+            throw new IllegalArgumentException("Minimum samples must be positive: " + minSamples);
+        }
+        if (maxHedgeRatio < 0 || maxHedgeRatio > 1) {
+            throw new IllegalArgumentException("Maximum hedge ratio must be in [0, 1]: " + maxHedgeRatio);
+        }
+        if (rateLimitCooldownMs < 0) {
+            throw new IllegalArgumentException("Rate limit cooldown must not be negative: " + rateLimitCooldownMs);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.crossmint.challenge.connectors;
+
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+/**
+ * Keeps a sliding window with the latest response latencies of an endpoint to compute latency percentiles.
+ */
+class LatencyTracker {
+
+    public static final int WINDOW_SIZE = 512;
+
+    private final long[] samples = new long[WINDOW_SIZE];
+    private int count;
+    private int next;
+
+    synchronized void record(long latencyMs) {
+        samples[next] = latencyMs;
+        next = (next + 1) % WINDOW_SIZE;
+        count = Math.min(count + 1, WINDOW_SIZE);
+    }
+
+    /**
+     * Computes the given percentile of the latencies in the window.
+     *
+     * @param percentile the percentile to compute, between 0 and 1.
+     * @param minSamples the minimum number of samples needed for the percentile to be meaningful.
+     * @return the latency in milliseconds at the given percentile, or empty if there are not enough samples.
+     */
+    synchronized OptionalLong percentile(double percentile, int minSamples) {
+        if (count == 0 || count < minSamples) {
+            return OptionalLong.empty();
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * count) - 1;
+        return OptionalLong.of(sorted[Math.max(0, Math.min(index, count - 1))]);
+    }
+}
@@ -6,6 +6,8 @@ import com.crossmint.challenge.model.SpaceCell;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
 
@@ -15,12 +17,10 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -29,7 +29,8 @@ import java.util.concurrent.TimeUnit;
  * publishing astral objects within the Megaverse or retrieving goal matrices to construct a Megaverse representation.
  * <p>
  * The class enforces retry mechanisms for API interactions to handle rate-limiting scenarios, providing a robust
- * mechanism for communication with the remote endpoints.
+ * mechanism for communication with the remote endpoints. Optionally, slow requests can be hedged following a {@link HedgingPolicy}.
+ * All the delays, timers and random jitter go through a {@link Scheduler}, so they can be run in simulated time.
  */
 @Setter
 public class MegaverseConnection {
@@ -40,8 +41,16 @@ public class MegaverseConnection {
     public static final int INITIAL_DELAY_MS = 900;
     public static final int MAX_RETRIES = 10;
     public static final int MIN_RETRY_DELAY_MS = 8000;
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    @Getter
     @NonNull
     private String candidateId;
+    @NonNull
+    private Scheduler scheduler = SystemScheduler.INSTANCE;
+    // Logs every request sent, disabled in large simulations
+    private boolean requestLogging = true;
+    @Setter(AccessLevel.NONE)
+    private RequestHedger requestHedger;
 
     // This is being used by the tests mocks
     @SuppressWarnings("unused")
@@ -53,21 +62,36 @@ public class MegaverseConnection {
         this.candidateId = candidateId;
     }
 
+    /**
+     * Enables request hedging following the given policy, or disables it if {@code null}.
+     *
+     * @param hedgingPolicy the {@link HedgingPolicy} to apply to every request sent, or {@code null} to disable hedging.
+     */
+    public void setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        this.requestHedger = hedgingPolicy == null ? null : new RequestHedger(hedgingPolicy);
+    }
+
     /**
      * Processes the 429 response to throw an exception so we can retry. Other non 2xx return messages (like 5xx) do not throw
      * exceptions and hence are not retried.
      *
      * @param response the response from the server.
      * @param error    the error thrown by the http client.
+     * @param tracker  the {@link AttemptTracker} where the status code of the response is recorded.
      */
-    private static void tooManyRequestsHandler(HttpResponse<String> response, Throwable error) {
+    private void tooManyRequestsHandler(HttpResponse<String> response, Throwable error, AttemptTracker tracker) {
         if (error == null) {
             int statusCode = response.statusCode();
+            tracker.recordStatusCode(statusCode);
             if (statusCode / 100 == 2) {
-                System.out.println("SUCCESS " + response + " <- " + LoggingUtils.extractBodyFromRequest(response.request()));
+                if (requestLogging) {
+                    System.out.println("SUCCESS " + response + " <- " + LoggingUtils.extractBodyFromRequest(response.request()));
+                }
             } else if (statusCode == 429) {
                 String errorMsg = "FAILURE " + response + " <- " + LoggingUtils.extractBodyFromRequest(response.request());
-                System.err.println(errorMsg);
+                if (requestLogging) {
+                    System.err.println(errorMsg);
+                }
                 throw new UncheckedIOException(new IOException(errorMsg));
             }
         }
@@ -90,8 +114,7 @@ public class MegaverseConnection {
 
         String jsonBody;
         try {
-            ObjectMapper jsonMapper = new ObjectMapper();
-            jsonBody = jsonMapper.writeValueAsString(astralObject);
+            jsonBody = JSON_MAPPER.writeValueAsString(astralObject);
         } catch (JsonProcessingException e) {
             throw new IllegalArgumentException("Could not parse astralObject: " + astralObject);
         }
@@ -115,30 +138,72 @@ public class MegaverseConnection {
      * which contains the {@link HttpResponse} or a failure.
      */
     CompletableFuture<HttpResponse<String>> sendWithRetries(HttpClient httpClient, HttpRequest request) throws InterruptedException {
+        return sendWithRetries(httpClient, request, new AttemptTracker());
+    }
+
+    /**
+     * Same as {@link #sendWithRetries(HttpClient, HttpRequest)}, recording every attempt and the last status code
+     * received in the given {@link AttemptTracker}.
+     *
+     * @param httpClient the instance of {@link HttpClient} used to send the HTTP request asynchronously.
+     * @param request    the {@link HttpRequest} to be sent to the server.
+     * @param tracker    the {@link AttemptTracker} where the attempts of this request are recorded.
+     * @return a {@link CompletableFuture} representing the eventual completion of the HTTP request,
+     * which contains the {@link HttpResponse} or a failure.
+     */
+    CompletableFuture<HttpResponse<String>> sendWithRetries(HttpClient httpClient, HttpRequest request, AttemptTracker tracker)
+        throws InterruptedException {
 
-        Thread.sleep(INITIAL_DELAY_MS);
+        scheduler.sleep(INITIAL_DELAY_MS);
 
-        CompletableFuture<HttpResponse<String>> futureResponse = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-            .whenCompleteAsync(MegaverseConnection::tooManyRequestsHandler);
+        CompletableFuture<HttpResponse<String>> futureResponse = sendTracked(httpClient, request, tracker);
 
         double exponentialDelay = MIN_RETRY_DELAY_MS;
         for (int i = 0; i < MAX_RETRIES; ++i) {
             final int tryNumber = i + 1;
             futureResponse = futureResponse.exceptionallyComposeAsync(
                 error -> {
-                    System.out.println("RETRY (" + tryNumber + "/" + MAX_RETRIES + ") " + request + " <- " + LoggingUtils.extractBodyFromRequest(request));
-                    return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                        .whenCompleteAsync(MegaverseConnection::tooManyRequestsHandler);
+                    if (requestLogging) {
+                        System.out.println("RETRY (" + tryNumber + "/" + MAX_RETRIES + ") " + request + " <- " + LoggingUtils.extractBodyFromRequest(request));
+                    }
+                    return sendTracked(httpClient, request, tracker);
                 },
                 //Random delay for each retry
-                CompletableFuture.delayedExecutor(Math.round(MIN_RETRY_DELAY_MS + exponentialDelay * Math.random()), TimeUnit.MILLISECONDS));
+                scheduler.delayedExecutor(Math.round(MIN_RETRY_DELAY_MS + exponentialDelay * scheduler.random()), TimeUnit.MILLISECONDS));
             exponentialDelay *= 1.2;
         }
 
         return futureResponse;
     }
 
-    Megaverse buildMegaverse(String[][] goalMatrix) {
+    private CompletableFuture<HttpResponse<String>> sendTracked(HttpClient httpClient, HttpRequest request, AttemptTracker tracker) {
+        tracker.recordAttempt();
+        return send(httpClient, request)
+            .whenCompleteAsync((response, error) -> tooManyRequestsHandler(response, error, tracker), scheduler.executor());
+    }
+
+    /**
+     * Sends a single attempt of the request, hedging it if a {@link HedgingPolicy} is set.
+     *
+     * @param httpClient the instance of {@link HttpClient} used to send the HTTP request asynchronously.
+     * @param request    the {@link HttpRequest} to be sent to the server.
+     * @return a {@link CompletableFuture} representing the eventual completion of the HTTP request.
+     */
+    CompletableFuture<HttpResponse<String>> send(HttpClient httpClient, HttpRequest request) {
+        if (requestHedger == null) {
+            return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        }
+        return requestHedger.send(httpClient, request, scheduler, requestLogging);
+    }
+
+    /**
+     * Builds a {@link Megaverse} for the candidate of this connection from a goal matrix.
+     *
+     * @param goalMatrix the matrix with the string representation of the content of each cell, as returned by the API.
+     * @return the {@link Megaverse} populated with {@link SpaceCell} objects.
+     * @throws IllegalArgumentException if a cell content is not recognized.
+     */
+    public @NonNull Megaverse buildMegaverse(@NonNull String[][] goalMatrix) {
 
         SpaceCell[][] spaceCells = new SpaceCell[goalMatrix.length][];
         Megaverse megaverse = new Megaverse(candidateId, spaceCells);
@@ -154,43 +219,75 @@ public class MegaverseConnection {
     }
 
     /**
-     * Publishes the state of all astral objects within a given Megaverse. This method iterates
-     * over each {@link SpaceCell} in the Megaverse, identifies cells with astral objects, and
-     * attempts to publish the objects to their respective endpoints using the helper method
+     * Publishes every given astral object using {@link #sendWithRetries(HttpClient, HttpRequest, AttemptTracker)} and
+     * waits for all of them to finish, collecting the outcome of each one instead of failing on the first error.
+     *
+     * @param httpClient    the instance of {@link HttpClient} used to send the HTTP requests.
+     * @param astralObjects the astral objects to be published.
+     * @return the {@link PublishResult} with one {@link PublishResult.CellResult} per astral object, in the same order.
+     */
+    PublishResult publish(HttpClient httpClient, List<AstralObject> astralObjects) throws InterruptedException {
+
+        List<CompletableFuture<PublishResult.CellResult>> allPublishResults = new ArrayList<>(astralObjects.size());
+
+        for (AstralObject astralObject : astralObjects) {
+            AttemptTracker tracker = new AttemptTracker();
+            allPublishResults.add(sendWithRetries(httpClient, buildPOSTRequest(astralObject), tracker)
+                .handle((response, error) -> tracker.toCellResult(astralObject, error)));
+        }
+
+        // Wait for all results to complete, the handlers above never complete exceptionally.
+        return new PublishResult(allPublishResults.stream()
+            .map(scheduler::join)
+            .toList());
+    }
+
+    /**
+     * Publishes the state of all astral objects within a given Megaverse. This method visits
+     * the occupied {@link SpaceCell}s of the Megaverse through its {@link com.crossmint.challenge.model.OccupiedCellIndex}
+     * and attempts to publish the objects to their respective endpoints using the helper method
      * {@code sendWithRetries}.
      *
      * @param megaverse the {@link Megaverse} instance containing the space cells and astral objects to be published.
-     * @throws IOException          if a failure occurs during the publishing process or if the HTTP client fails.
+     * @return the {@link PublishResult} with the outcome, attempts and last status code of every astral object.
      */
-    public void publishState(@NonNull Megaverse megaverse) throws IOException, InterruptedException {
+    public @NonNull PublishResult publishState(@NonNull Megaverse megaverse) throws InterruptedException {
 
-        try (HttpClient httpClient = buildHttpClient()) {
+        return publishAll(megaverse.astralObjects());
+    }
 
-            LinkedList<CompletableFuture<HttpResponse<String>>> allPublishResults = new LinkedList<>();
+    /**
+     * Publishes the given astral objects, for instance the subset of a {@link Megaverse} assigned to a shard.
+     *
+     * @param astralObjects the astral objects to be published.
+     * @return the {@link PublishResult} with the outcome, attempts and last status code of every astral object.
+     */
+    public @NonNull PublishResult publishAll(@NonNull List<AstralObject> astralObjects) throws InterruptedException {
 
-            for (SpaceCell[] row : megaverse.spaceCells()) {
-                for (SpaceCell cell : row) {
-                    Optional<AstralObject> optAstralObject = cell.getAstralObject();
-                    if (optAstralObject.isPresent()) {
-                        allPublishResults.add(sendWithRetries(httpClient, buildPOSTRequest(optAstralObject.get())));
-                    }
-                }
-            }
+        try (HttpClient httpClient = buildHttpClient()) {
+            return publish(httpClient, astralObjects);
+        }
+    }
+
+    /**
+     * Re-publishes only the astral objects that failed in a previous {@link PublishResult}, each one with a fresh
+     * retry budget. The objects that already succeeded are not sent again.
+     *
+     * @param previousResult the result of a previous call to {@link #publishState(Megaverse)} or to this method.
+     * @return a new {@link PublishResult} where the failed cells are replaced by the outcome of the re-drive.
+     */
+    public @NonNull PublishResult republishFailed(@NonNull PublishResult previousResult) throws InterruptedException {
 
-            // Wait for all results to complete and throw exception if some completed exceptionally.
-            CompletableFuture.allOf(allPublishResults.toArray(CompletableFuture[]::new)).get();
+        List<AstralObject> failedObjects = previousResult.failed().stream()
+            .map(PublishResult.CellResult::astralObject)
+            .toList();
 
-            // Check all results that didn't return 2xx
-            List<HttpResponse<String>> failedResponses = allPublishResults.stream()
-                .map(CompletableFuture::join)
-                .filter(result -> result.statusCode() / 100 != 2)
-                .toList();
+        if (failedObjects.isEmpty()) {
+            return previousResult;
+        }
 
-            if (!failedResponses.isEmpty()) {
-                throw new IOException("Failed to publish all astral objects: " + failedResponses);
-            }
-        } catch (ExecutionException e) {
-            throw new IOException("Failed to publish all astral objects due to errors.", e.getCause());
+        try (HttpClient httpClient = buildHttpClient()) {
+            return previousResult.merge(publish(httpClient, failedObjects));
         }
     }
 
@@ -203,21 +300,34 @@ public class MegaverseConnection {
      * @throws IOException          if an I/O error occurs during the HTTP request or while processing the response.
      */
     public @NonNull Megaverse readGoal() throws IOException, InterruptedException {
+        return buildMegaverse(readGoalMatrix());
+    }
+
+    /**
+     * Retrieves the goal matrix from the remote API, with the string representation of the content of each cell.
+     *
+     * @return the goal matrix.
+     * @throws IOException          if an I/O error occurs during the HTTP request or while processing the response.
+     */
+    public String @NonNull [][] readGoalMatrix() throws IOException, InterruptedException {
 
         try (HttpClient httpClient = buildHttpClient()) {
 
             HttpRequest request = buildGoalRequest();
 
-            HttpResponse<String> response = sendWithRetries(httpClient, request).join();
+            HttpResponse<String> response = scheduler.join(sendWithRetries(httpClient, request));
             if (response.statusCode() / 100 != 2) {
                 throw new IOException("Error HTTP response: " + response + " -> " + response.body());
             }
 
-            ObjectMapper jsonMapper = new ObjectMapper();
-            Map<String, String[][]> goalMap = jsonMapper.readValue(response.body(), new TypeReference<>() {
+            Map<String, String[][]> goalMap = JSON_MAPPER.readValue(response.body(), new TypeReference<>() {
             });
 
-            return buildMegaverse(goalMap.get("goal"));
+            String[][] goalMatrix = goalMap.get("goal");
+            if (goalMatrix == null) {
+                throw new IOException("Goal not found in response: " + response.body());
+            }
+            return goalMatrix;
         }
     }
 }
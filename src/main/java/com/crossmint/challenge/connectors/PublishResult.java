@@ -0,0 +1,87 @@
+package com.crossmint.challenge.connectors;
+
+import com.crossmint.challenge.model.AstralObject;
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Represents the outcome of publishing a set of astral objects to the remote API.
+ * Each published object is tracked by a {@link CellResult} holding its final {@link Outcome},
+ * the number of attempts made and the last HTTP status code received, so that a partial failure
+ * does not hide which objects were actually published.
+ */
+public record PublishResult(@NonNull List<CellResult> cellResults) {
+
+    /**
+     * Status code reported when no HTTP response was ever received for an object (e.g. network errors).
+     */
+    public static final int NO_STATUS = -1;
+
+    public enum Outcome {
+        /**
+         * The server answered with a 2xx status code.
+         */
+        SUCCEEDED,
+        /**
+         * The server answered with a non-retryable error status code (e.g. 5xx).
+         */
+        REJECTED,
+        /**
+         * Every retry failed, either because of 429 responses or client errors.
+         */
+        EXHAUSTED,
+        /**
+         * No outcome was reported for the object, e.g. because the shard worker publishing it died.
+         */
+        UNKNOWN
+    }
+
+    public record CellResult(@NonNull AstralObject astralObject, @NonNull Outcome outcome, int attempts, int lastStatusCode) {
+
+        public boolean isSucceeded() {
+            return outcome == Outcome.SUCCEEDED;
+        }
+
+        @Override
+        public String toString() {
+            return outcome + " (" + astralObject.getRow() + ", " + astralObject.getColumn() + ") " + astralObject.toString().trim()
+                + " attempts=" + attempts + " lastStatus=" + lastStatusCode;
+        }
+    }
+
+    public @NonNull List<CellResult> succeeded() {
+        return cellResults.stream().filter(CellResult::isSucceeded).toList();
+    }
+
+    public @NonNull List<CellResult> failed() {
+        return cellResults.stream().filter(cellResult -> !cellResult.isSucceeded()).toList();
+    }
+
+    public boolean isSuccessful() {
+        return cellResults.stream().allMatch(CellResult::isSucceeded);
+    }
+
+    /**
+     * Builds a new result where the cells present in {@code redrive} replace the ones in this result,
+     * keeping the original order. Cells not re-driven keep their previous outcome.
+     *
+     * @param redrive the result of re-publishing a subset of the objects of this result.
+     * @return the merged {@link PublishResult}.
+     */
+    @NonNull PublishResult merge(@NonNull PublishResult redrive) {
+        Map<AstralObject, CellResult> redriveResults = redrive.cellResults().stream()
+            .collect(Collectors.toMap(CellResult::astralObject, Function.identity()));
+        return new PublishResult(cellResults.stream()
+            .map(cellResult -> redriveResults.getOrDefault(cellResult.astralObject(), cellResult))
+            .toList());
+    }
+
+    @Override
+    public String toString() {
+        return "PublishResult{succeeded=" + succeeded().size() + ", failed=" + failed() + "}";
+    }
+}
@@ -0,0 +1,164 @@
+package com.crossmint.challenge.connectors;
+
+import lombok.NonNull;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sends HTTP requests following a {@link HedgingPolicy}: the latency of the responses is tracked per endpoint and,
+ * when a request takes longer than the configured percentile, a duplicate request is sent. The first successful
+ * response completes the request and the other one is cancelled.
+ * <p>
+ * One latency is recorded per successful request, from the start of the primary request to the response that completes
+ * it, so hedged slow requests are kept in the window and the percentile is not biased towards fast responses.
+ * <p>
+ * Rate-limited responses neither count towards the hedge budget nor lower the percentile, and no request is hedged
+ * for a while after one, so hedging does not add pressure to a rate-limited API.
+ */
+class RequestHedger {
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    @NonNull
+    private final HedgingPolicy policy;
+    private final Map<String, LatencyTracker> latencyTrackers = new ConcurrentHashMap<>();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong hedgeCount = new AtomicLong();
+    private final AtomicLong lastRateLimitedMillis = new AtomicLong(NEVER);
+
+    RequestHedger(@NonNull HedgingPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Sends the request, hedging it if the latency percentile of its endpoint is known and there is hedge budget left.
+     *
+     * @param httpClient the instance of {@link HttpClient} used to send the HTTP request asynchronously.
+     * @param request    the {@link HttpRequest} to be sent to the server.
+     * @param scheduler  the {@link Scheduler} used to measure latencies and to wait before hedging.
+     * @param logging    whether the hedged requests are logged.
+     * @return a {@link CompletableFuture} completed with the first 2xx response received, or with the last response
+     * or error if none of the sent requests succeeded.
+     */
+    CompletableFuture<HttpResponse<String>> send(HttpClient httpClient, HttpRequest request, Scheduler scheduler, boolean logging) {
+
+        LatencyTracker latencyTracker = latencyTrackers.computeIfAbsent(request.uri().getPath(), path -> new LatencyTracker());
+        OptionalLong hedgeDelayMs = latencyTracker.percentile(policy.percentile(), policy.minSamples());
+
+        long startTime = scheduler.currentTimeMillis();
+        CompletableFuture<HttpResponse<String>> primary = sendObserved(httpClient, request, scheduler);
+        if (hedgeDelayMs.isEmpty()) {
+            primary.thenAccept(response -> recordResponse(latencyTracker, scheduler.currentTimeMillis() - startTime, response));
+            return primary;
+        }
+
+        CompletableFuture<HttpResponse<String>> firstResponse = new CompletableFuture<>();
+        AtomicInteger pendingRequests = new AtomicInteger(1);
+        AtomicReference<CompletableFuture<HttpResponse<String>>> hedge = new AtomicReference<>();
+
+        primary.whenComplete((response, error) -> completeFirst(firstResponse, pendingRequests, response, error));
+
+        scheduler.delayedExecutor(hedgeDelayMs.getAsLong(), TimeUnit.MILLISECONDS).execute(() -> {
+            if (firstResponse.isDone() || isRateLimited(scheduler) || !tryAcquireHedge()) {
+                return;
+            }
+            // Do not hedge if every request already failed in the meantime
+            if (pendingRequests.getAndUpdate(pending -> pending == 0 ? 0 : pending + 1) == 0) {
+                hedgeCount.decrementAndGet();
+                return;
+            }
+            if (logging) {
+                System.out.println("HEDGE " + request + " <- " + LoggingUtils.extractBodyFromRequest(request));
+            }
+            CompletableFuture<HttpResponse<String>> hedgeResponse = sendObserved(httpClient, request, scheduler);
+            hedge.set(hedgeResponse);
+            hedgeResponse.whenComplete((response, error) -> completeFirst(firstResponse, pendingRequests, response, error));
+            if (firstResponse.isDone()) {
+                hedgeResponse.cancel(true);
+            }
+        });
+
+        // Record the latency of the request as a whole, hedged or not, and cancel the loser once there is a winner
+        firstResponse.whenComplete((response, error) -> {
+            if (error == null) {
+                recordResponse(latencyTracker, scheduler.currentTimeMillis() - startTime, response);
+            }
+            primary.cancel(true);
+            CompletableFuture<HttpResponse<String>> hedgeResponse = hedge.get();
+            if (hedgeResponse != null) {
+                hedgeResponse.cancel(true);
+            }
+        });
+
+        return firstResponse;
+    }
+
+    /**
+     * Sends a copy of the request, remembering when it is rate-limited. The returned future is the one of the
+     * {@link HttpClient}, so cancelling it cancels the request.
+     */
+    private CompletableFuture<HttpResponse<String>> sendObserved(HttpClient httpClient, HttpRequest request, Scheduler scheduler) {
+        CompletableFuture<HttpResponse<String>> response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        response.thenAccept(completed -> {
+            if (completed.statusCode() == 429) {
+                lastRateLimitedMillis.set(scheduler.currentTimeMillis());
+            }
+        });
+        return response;
+    }
+
+    /**
+     * Counts a request that was not rate-limited towards the hedge budget, and records its latency if it succeeded.
+     */
+    private void recordResponse(LatencyTracker latencyTracker, long latencyMs, HttpResponse<String> response) {
+        int statusCode = response.statusCode();
+        if (statusCode == 429) {
+            return;
+        }
+        requestCount.incrementAndGet();
+        if (statusCode / 100 == 2) {
+            latencyTracker.record(latencyMs);
+        }
+    }
+
+    private boolean isRateLimited(Scheduler scheduler) {
+        long lastRateLimited = lastRateLimitedMillis.get();
+        return lastRateLimited != NEVER && scheduler.currentTimeMillis() - lastRateLimited < policy.rateLimitCooldownMs();
+    }
+
+    private boolean tryAcquireHedge() {
+        long hedges = hedgeCount.incrementAndGet();
+        if (hedges > policy.maxHedgeRatio() * requestCount.get()) {
+            hedgeCount.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Completes the request with a 2xx response as soon as one arrives. Other responses and errors (e.g. a 429) only
+     * complete it when there is no other request in flight, so they do not cancel a request that could still succeed.
+     */
+    private static void completeFirst(CompletableFuture<HttpResponse<String>> firstResponse, AtomicInteger pendingRequests,
+                                      HttpResponse<String> response, Throwable error) {
+        if (error == null && response.statusCode() / 100 == 2) {
+            firstResponse.complete(response);
+        } else if (pendingRequests.decrementAndGet() == 0) {
+            if (error == null) {
+                firstResponse.complete(response);
+            } else {
+                firstResponse.completeExceptionally(error);
+            }
+        }
+    }
+}
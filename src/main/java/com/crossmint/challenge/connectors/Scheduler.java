@@ -0,0 +1,54 @@
+package com.crossmint.challenge.connectors;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Abstraction of the clock, the executors and the random source used by {@link MegaverseConnection} to space out
+ * requests and schedule retries. The {@link SystemScheduler} uses wall time, while the {@link VirtualScheduler}
+ * runs the same logic in simulated time, so large publishing scenarios can be tested quickly and deterministically.
+ */
+public interface Scheduler {
+
+    /**
+     * @return the current time of this scheduler in milliseconds.
+     */
+    long currentTimeMillis();
+
+    /**
+     * Blocks the caller for the given time.
+     *
+     * @param millis the time to sleep in milliseconds.
+     * @throws InterruptedException if the calling thread is interrupted while sleeping.
+     */
+    void sleep(long millis) throws InterruptedException;
+
+    /**
+     * @return the {@link Executor} used to run asynchronous stages as soon as possible.
+     */
+    Executor executor();
+
+    /**
+     * Returns an {@link Executor} that runs the submitted tasks after the given delay.
+     *
+     * @param delay the delay after which the tasks are run.
+     * @param unit  the {@link TimeUnit} of the delay.
+     * @return the delayed {@link Executor}.
+     */
+    Executor delayedExecutor(long delay, TimeUnit unit);
+
+    /**
+     * @return a pseudo-random number between 0 (inclusive) and 1 (exclusive).
+     */
+    double random();
+
+    /**
+     * Waits for the future to complete and returns its result.
+     *
+     * @param future the {@link CompletableFuture} to wait for.
+     * @return the result of the future.
+     * @throws java.util.concurrent.CompletionException if the future completed exceptionally.
+     */
+    <T> T join(CompletableFuture<T> future);
+}
@@ -0,0 +1,44 @@
+package com.crossmint.challenge.connectors;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Scheduler} based on wall time, the common {@link ForkJoinPool} and {@link Math#random()}.
+ */
+public class SystemScheduler implements Scheduler {
+
+    public static final SystemScheduler INSTANCE = new SystemScheduler();
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    @Override
+    public Executor executor() {
+        return ForkJoinPool.commonPool();
+    }
+
+    @Override
+    public Executor delayedExecutor(long delay, TimeUnit unit) {
+        return CompletableFuture.delayedExecutor(delay, unit);
+    }
+
+    @Override
+    public double random() {
+        return Math.random();
+    }
+
+    @Override
+    public <T> T join(CompletableFuture<T> future) {
+        return future.join();
+    }
+}
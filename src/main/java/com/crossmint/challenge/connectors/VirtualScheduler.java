@@ -0,0 +1,110 @@
+package com.crossmint.challenge.connectors;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Scheduler} running in simulated time with a seeded random source.
+ * <p>
+ * Tasks are queued with their due virtual time and run on the calling thread when the clock advances, either by
+ * {@link #sleep(long)} or while {@link #join(CompletableFuture)} waits for a future. Time jumps straight to the next
+ * due task, so hours of retries and backoff are simulated in milliseconds, always in the same order for the same seed.
+ * <p>
+ * It is meant for simulations where the HTTP client completes its futures in place (e.g. mocks): a future that
+ * depends on another thread cannot be waited for.
+ */
+public class VirtualScheduler implements Scheduler {
+
+    private record ScheduledTask(long dueTimeMillis, long sequence, Runnable task) {
+    }
+
+    private final Random random;
+    private final PriorityQueue<ScheduledTask> tasks = new PriorityQueue<>(
+        Comparator.comparingLong(ScheduledTask::dueTimeMillis).thenComparingLong(ScheduledTask::sequence));
+    private long nowMillis;
+    private long sequence;
+
+    public VirtualScheduler(long seed) {
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public synchronized long currentTimeMillis() {
+        return nowMillis;
+    }
+
+    @Override
+    public void sleep(long millis) {
+        long wakeUpTime;
+        synchronized (this) {
+            wakeUpTime = nowMillis + millis;
+        }
+        while (runNext(wakeUpTime)) {
+            // Run every task due before waking up
+        }
+        synchronized (this) {
+            nowMillis = Math.max(nowMillis, wakeUpTime);
+        }
+    }
+
+    @Override
+    public Executor executor() {
+        return task -> schedule(0, task);
+    }
+
+    @Override
+    public Executor delayedExecutor(long delay, TimeUnit unit) {
+        long delayMillis = unit.toMillis(delay);
+        return task -> schedule(delayMillis, task);
+    }
+
+    @Override
+    public synchronized double random() {
+        return random.nextDouble();
+    }
+
+    @Override
+    public <T> T join(CompletableFuture<T> future) {
+        while (!future.isDone()) {
+            if (!runNext(Long.MAX_VALUE)) {
+                throw new IllegalStateException("No scheduled task left to complete the future: " + future);
+            }
+        }
+        return future.join();
+    }
+
+    /**
+     * @return the number of tasks waiting to be run.
+     */
+    public synchronized int pendingTasks() {
+        return tasks.size();
+    }
+
+    private synchronized void schedule(long delayMillis, Runnable task) {
+        tasks.add(new ScheduledTask(nowMillis + delayMillis, sequence++, task));
+    }
+
+    /**
+     * Advances the clock to the next task due up to the given time and runs it.
+     *
+     * @param limitMillis the latest due time of the task to run.
+     * @return {@code true} if a task was run.
+     */
+    private boolean runNext(long limitMillis) {
+        ScheduledTask next;
+        synchronized (this) {
+            next = tasks.peek();
+            if (next == null || next.dueTimeMillis() > limitMillis) {
+                return false;
+            }
+            tasks.poll();
+            nowMillis = Math.max(nowMillis, next.dueTimeMillis());
+        }
+        next.task().run();
+        return true;
+    }
+}
@@ -1,13 +1,35 @@
 package com.crossmint.challenge.main;
 
+import com.crossmint.challenge.connectors.HedgingPolicy;
 import com.crossmint.challenge.connectors.MegaverseConnection;
+import com.crossmint.challenge.connectors.PublishResult;
 import com.crossmint.challenge.model.Megaverse;
+import com.crossmint.challenge.sharding.Partitioning;
+import com.crossmint.challenge.sharding.Shard;
+import com.crossmint.challenge.sharding.ShardCoordinator;
+import com.crossmint.challenge.sharding.ShardProgress;
+import com.crossmint.challenge.sharding.ShardWorker;
 
+import java.io.File;
 import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 public class Main {
 
     public static final String CANDIDATE_ID = "87a965e7-007b-434d-97e1-30aad508402e";
+    public static final int MAX_REDRIVES = 3;
+
+    public static final String ROLE_COORDINATOR = "coordinator";
+    public static final String ROLE_WORKER = "worker";
+    public static final int DEFAULT_SHARD_COUNT = 4;
+    public static final Path DEFAULT_SHARD_DIR = Path.of(System.getProperty("java.io.tmpdir"), "megaverse-shards");
 
     public static void main(String[] args) {
 
@@ -20,11 +42,23 @@ public class Main {
 
         try {
             MegaverseConnection connection = new MegaverseConnection(candidateId);
-            Megaverse megaverse = connection.readGoal();
-            System.out.println(megaverse);
-            connection.publishState(megaverse);
-            System.out.println("Megaverse published successfully.");
-        } catch (IOException | InterruptedException e) {
+            if (Boolean.parseBoolean(System.getenv("HEDGING"))) {
+                connection.setHedgingPolicy(HedgingPolicy.DEFAULT);
+            }
+
+            String role = System.getenv("SHARD_ROLE");
+            if (role == null) {
+                Megaverse megaverse = connection.readGoal();
+                System.out.println(megaverse);
+                report(redrive(connection, connection.publishState(megaverse)));
+            } else if (role.equals(ROLE_COORDINATOR)) {
+                report(redrive(connection, coordinate(connection, candidateId)));
+            } else if (role.equals(ROLE_WORKER)) {
+                work(connection);
+            } else {
+                throw new IllegalArgumentException("Unexpected SHARD_ROLE: " + role);
+            }
+        } catch (IOException | InterruptedException | IllegalArgumentException e) {
             System.err.println("Failed to execute the challenge: " + e.getLocalizedMessage());
         }
 
@@ -32,4 +66,103 @@ public class Main {
         double elapsedTimeInSeconds = (endTime - startTime) / 1000.0;
         System.out.println("Elapsed time: " + elapsedTimeInSeconds + " seconds.");
     }
+
+    private static PublishResult redrive(MegaverseConnection connection, PublishResult result) throws InterruptedException {
+        for (int i = 0; i < MAX_REDRIVES && !result.isSuccessful(); ++i) {
+            System.err.println("REDRIVE (" + (i + 1) + "/" + MAX_REDRIVES + ") " + result.failed().size() + " failed astral objects");
+            result = connection.republishFailed(result);
+        }
+        return result;
+    }
+
+    private static void report(PublishResult result) {
+        if (result.isSuccessful()) {
+            System.out.println("Megaverse published successfully.");
+        } else {
+            System.err.println("Failed to publish all astral objects: " + result.failed());
+        }
+    }
+
+    /**
+     * Splits the publishing of the goal among {@code SHARD_COUNT} workers and merges their results. Workers are started
+     * as local processes unless {@code SHARD_SPAWN_WORKERS=false}, in which case they are expected to be started on
+     * other nodes sharing the {@code SHARD_DIR} directory.
+     */
+    private static PublishResult coordinate(MegaverseConnection connection, String candidateId) throws IOException, InterruptedException {
+
+        int shardCount = Integer.parseInt(getenv("SHARD_COUNT", String.valueOf(DEFAULT_SHARD_COUNT)));
+        Path shardDir = Path.of(getenv("SHARD_DIR", DEFAULT_SHARD_DIR.toString()));
+        Partitioning partitioning = Partitioning.valueOf(getenv("SHARD_PARTITIONING", Partitioning.ROWS.name()));
+        boolean spawnWorkers = Boolean.parseBoolean(getenv("SHARD_SPAWN_WORKERS", "true"));
+
+        Duration timeout = getDuration("SHARD_TIMEOUT_SECONDS", ShardCoordinator.DEFAULT_TIMEOUT);
+
+        ShardCoordinator coordinator = new ShardCoordinator(connection, new ShardProgress(shardDir, shardCount), partitioning, timeout);
+        return coordinator.run(spawnWorkers ? shard -> launchWorker(shard, shardDir, candidateId) : null);
+    }
+
+    private static void work(MegaverseConnection connection) throws IOException, InterruptedException {
+
+        int shardCount = Integer.parseInt(getenv("SHARD_COUNT", String.valueOf(DEFAULT_SHARD_COUNT)));
+        // Every worker must publish its own shard, a default index would publish the same shard twice
+        String shardIndexValue = System.getenv("SHARD_INDEX");
+        if (shardIndexValue == null) {
+            throw new IllegalArgumentException("SHARD_INDEX is required for the " + ROLE_WORKER + " role");
+        }
+        int shardIndex = Integer.parseInt(shardIndexValue);
+        Path shardDir = Path.of(getenv("SHARD_DIR", DEFAULT_SHARD_DIR.toString()));
+        Partitioning partitioning = Partitioning.valueOf(getenv("SHARD_PARTITIONING", Partitioning.ROWS.name()));
+
+        Shard shard = new Shard(shardIndex, shardCount, partitioning);
+        Duration goalTimeout = getDuration("SHARD_TIMEOUT_SECONDS", ShardWorker.DEFAULT_GOAL_TIMEOUT);
+
+        PublishResult result = new ShardWorker(connection, new ShardProgress(shardDir, shardCount), shard, goalTimeout).run();
+        System.out.println("Finished " + shard + ": " + result);
+    }
+
+    private static Process launchWorker(Shard shard, Path shardDir, String candidateId) throws IOException {
+
+        String javaBin = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder processBuilder = new ProcessBuilder(javaBin, "-cp", classPath(), Main.class.getName()).inheritIO();
+
+        Map<String, String> environment = processBuilder.environment();
+        environment.put("CANDIDATE_ID", candidateId);
+        environment.put("SHARD_ROLE", ROLE_WORKER);
+        environment.put("SHARD_INDEX", String.valueOf(shard.index()));
+        environment.put("SHARD_COUNT", String.valueOf(shard.count()));
+        environment.put("SHARD_PARTITIONING", shard.partitioning().name());
+        environment.put("SHARD_DIR", shardDir.toString());
+
+        System.out.println("Starting worker for " + shard);
+        return processBuilder.start();
+    }
+
+    /**
+     * Returns the class path of the application. When run through {@code exec:java} the application is loaded by a
+     * dedicated class loader, so the {@code java.class.path} property is not the one of the application.
+     */
+    private static String classPath() {
+        if (Main.class.getClassLoader() instanceof URLClassLoader urlClassLoader) {
+            List<String> paths = new ArrayList<>();
+            for (URL url : urlClassLoader.getURLs()) {
+                try {
+                    paths.add(Path.of(url.toURI()).toString());
+                } catch (URISyntaxException | IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unexpected class path entry: " + url, e);
+                }
+            }
+            return String.join(File.pathSeparator, paths);
+        }
+        return System.getProperty("java.class.path");
+    }
+
+    private static String getenv(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : value;
+    }
+
+    private static Duration getDuration(String name, Duration defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : Duration.ofSeconds(Long.parseLong(value));
+    }
 }
@@ -1,18 +1,55 @@
 package com.crossmint.challenge.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.NonNull;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
  * Represents the entire megaverse structure, consisting of a two-dimensional array of {@link SpaceCell} instances.
  * Each {@link SpaceCell} contains positional and contextual information about astral entities within the megaverse.
  * The Megaverse is uniquely identified by a candidate ID.
+ * The occupied cells are also indexed by type in an {@link OccupiedCellIndex}, so they can be visited without scanning the whole grid.
+ * The index is filled by {@link SpaceCell#fillFromString(String)} as the cells of this megaverse are created, so it is
+ * not part of the identity of the megaverse.
  */
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
-public record Megaverse(@NonNull String candidateId, @NonNull SpaceCell[][] spaceCells) {
+public record Megaverse(@NonNull String candidateId, @NonNull SpaceCell[][] spaceCells, @NonNull @JsonIgnore OccupiedCellIndex occupiedCells) {
+
+    public Megaverse {
+        if (occupiedCells.count() > 0) {
+            throw new IllegalArgumentException("The occupied cell index of a new megaverse must be empty");
+        }
+    }
+
+    public Megaverse(@NonNull String candidateId, @NonNull SpaceCell[][] spaceCells) {
+        this(candidateId, spaceCells, new OccupiedCellIndex());
+    }
+
+    /**
+     * Returns the astral objects of the megaverse using the {@link OccupiedCellIndex}, in row-major order.
+     *
+     * @return the list of every astral object in the megaverse.
+     */
+    public @NonNull List<AstralObject> astralObjects() {
+        List<AstralObject> astralObjects = new ArrayList<>(occupiedCells.count());
+        occupiedCells.forEach((row, column) -> astralObjects.add(spaceCells[row][column].getAstralObject().orElseThrow()));
+        return astralObjects;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Megaverse megaverse && candidateId.equals(megaverse.candidateId) && spaceCells == megaverse.spaceCells;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * candidateId.hashCode() + spaceCells.hashCode();
+    }
 
     @Override
     public String toString() {
@@ -0,0 +1,264 @@
+package com.crossmint.challenge.model;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Secondary index of the occupied {@link SpaceCell}s of a {@link Megaverse}, grouped by the type of their {@link AstralObject}.
+ * <p>
+ * The positions of each type are kept as a sorted array of packed row/column longs, in row-major order, so iterating,
+ * counting and querying rectangular regions scales with the number of astral objects instead of the size of the map.
+ * The index is kept up to date by {@link SpaceCell#fillFromString(String)}.
+ */
+public class OccupiedCellIndex {
+
+    @FunctionalInterface
+    public interface CellConsumer {
+        void accept(int row, int column);
+    }
+
+    private final Map<Class<? extends AstralObject>, PackedCells> cellsByType = new LinkedHashMap<>();
+
+    /**
+     * Packs a cell in a single long, with the row in the high 32 bits, so packed cells sort in row-major order.
+     */
+    public static long pack(int row, int column) {
+        if (row < 0 || column < 0) {
+            throw new IllegalArgumentException("Cell out of indexable bounds: (" + row + ", " + column + ")");
+        }
+        return (long) row << 32 | column;
+    }
+
+    public static int row(long packedCell) {
+        return (int) (packedCell >>> 32);
+    }
+
+    public static int column(long packedCell) {
+        return (int) packedCell;
+    }
+
+    /**
+     * Updates the index when the astral object of a cell changes.
+     *
+     * @param row      the row of the cell.
+     * @param column   the column of the cell.
+     * @param previous the astral object the cell had before, or {@code null} if it was empty.
+     * @param current  the astral object the cell has now, or {@code null} if it is empty.
+     */
+    synchronized void update(int row, int column, AstralObject previous, AstralObject current) {
+        if (previous == null && current == null) {
+            return;
+        }
+        long packedCell = pack(row, column);
+        if (previous != null) {
+            PackedCells cells = cellsByType.get(previous.getClass());
+            cells.remove(packedCell);
+            if (cells.size == 0) {
+                cellsByType.remove(previous.getClass());
+            }
+        }
+        if (current != null) {
+            cellsByType.computeIfAbsent(current.getClass(), type -> new PackedCells()).add(packedCell);
+        }
+    }
+
+    public synchronized @NonNull Set<Class<? extends AstralObject>> types() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(cellsByType.keySet()));
+    }
+
+    public synchronized int count() {
+        return cellsByType.values().stream().mapToInt(cells -> cells.size).sum();
+    }
+
+    public synchronized int count(@NonNull Class<? extends AstralObject> type) {
+        PackedCells cells = cellsByType.get(type);
+        return cells == null ? 0 : cells.size;
+    }
+
+    /**
+     * Returns the packed positions of the cells holding the given type, in row-major order.
+     *
+     * @param type the type of astral object.
+     * @return a copy of the packed positions, to be decoded with {@link #row(int)} and {@link #column(int)}.
+     */
+    public synchronized long @NonNull [] packedCells(@NonNull Class<? extends AstralObject> type) {
+        PackedCells cells = cellsByType.get(type);
+        return cells == null ? new long[0] : Arrays.copyOf(cells.cells, cells.size);
+    }
+
+    /**
+     * Visits every occupied cell in row-major order, whatever its type.
+     * The consumer is called while holding the lock of the index, so it must not modify the megaverse.
+     *
+     * @param consumer the consumer receiving the row and column of each occupied cell.
+     */
+    public void forEach(@NonNull CellConsumer consumer) {
+        forEachInRegion(0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE, consumer);
+    }
+
+    public void forEach(@NonNull Class<? extends AstralObject> type, @NonNull CellConsumer consumer) {
+        forEachInRegion(type, 0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE, consumer);
+    }
+
+    /**
+     * Visits the occupied cells within the region [rowFrom, rowTo) x [columnFrom, columnTo) in row-major order,
+     * merging the positions of every type. The consumer is called while holding the lock of the index, so it must
+     * not modify the megaverse.
+     *
+     * @param rowFrom    the first row of the region (inclusive).
+     * @param columnFrom the first column of the region (inclusive).
+     * @param rowTo      the last row of the region (exclusive).
+     * @param columnTo   the last column of the region (exclusive).
+     * @param consumer   the consumer receiving the row and column of each occupied cell in the region.
+     */
+    public synchronized void forEachInRegion(int rowFrom, int columnFrom, int rowTo, int columnTo, @NonNull CellConsumer consumer) {
+        Region region = Region.of(rowFrom, columnFrom, rowTo, columnTo);
+        if (region == null) {
+            return;
+        }
+
+        PackedCells[] typeCells = cellsByType.values().toArray(PackedCells[]::new);
+        int[] next = new int[typeCells.length];
+        int[] end = new int[typeCells.length];
+        for (int t = 0; t < typeCells.length; ++t) {
+            next[t] = typeCells[t].from(region);
+            end[t] = typeCells[t].to(region);
+        }
+
+        // Merge the sorted positions of every type, there are only a few types so a linear scan for the minimum is enough
+        while (true) {
+            int min = -1;
+            for (int t = 0; t < typeCells.length; ++t) {
+                if (next[t] < end[t] && (min < 0 || typeCells[t].cells[next[t]] < typeCells[min].cells[next[min]])) {
+                    min = t;
+                }
+            }
+            if (min < 0) {
+                return;
+            }
+            long packedCell = typeCells[min].cells[next[min]++];
+            if (region.containsColumn(column(packedCell))) {
+                consumer.accept(row(packedCell), column(packedCell));
+            }
+        }
+    }
+
+    /**
+     * Visits the cells holding the given type within the region [rowFrom, rowTo) x [columnFrom, columnTo), in row-major order.
+     * The consumer is called while holding the lock of the index, so it must not modify the megaverse.
+     *
+     * @param type       the type of astral object.
+     * @param rowFrom    the first row of the region (inclusive).
+     * @param columnFrom the first column of the region (inclusive).
+     * @param rowTo      the last row of the region (exclusive).
+     * @param columnTo   the last column of the region (exclusive).
+     * @param consumer   the consumer receiving the row and column of each occupied cell in the region.
+     */
+    public synchronized void forEachInRegion(@NonNull Class<? extends AstralObject> type, int rowFrom, int columnFrom, int rowTo, int columnTo,
+                                             @NonNull CellConsumer consumer) {
+        PackedCells cells = cellsByType.get(type);
+        Region region = Region.of(rowFrom, columnFrom, rowTo, columnTo);
+        if (cells == null || region == null) {
+            return;
+        }
+        for (int i = cells.from(region), to = cells.to(region); i < to; ++i) {
+            long packedCell = cells.cells[i];
+            if (region.containsColumn(column(packedCell))) {
+                consumer.accept(row(packedCell), column(packedCell));
+            }
+        }
+    }
+
+    public synchronized int countInRegion(@NonNull Class<? extends AstralObject> type, int rowFrom, int columnFrom, int rowTo, int columnTo) {
+        PackedCells cells = cellsByType.get(type);
+        Region region = Region.of(rowFrom, columnFrom, rowTo, columnTo);
+        if (cells == null || region == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = cells.from(region), to = cells.to(region); i < to; ++i) {
+            if (region.containsColumn(column(cells.cells[i]))) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Inclusive bounds of a query region, clamped to non-negative rows and columns.
+     */
+    private record Region(int firstRow, int firstColumn, int lastRow, int lastColumn) {
+
+        /**
+         * @return the region [rowFrom, rowTo) x [columnFrom, columnTo), or {@code null} if it is empty.
+         */
+        static Region of(int rowFrom, int columnFrom, int rowTo, int columnTo) {
+            int firstRow = Math.max(rowFrom, 0);
+            int firstColumn = Math.max(columnFrom, 0);
+            if (firstRow >= rowTo || firstColumn >= columnTo) {
+                return null;
+            }
+            return new Region(firstRow, firstColumn, rowTo - 1, columnTo - 1);
+        }
+
+        boolean containsColumn(int column) {
+            return column >= firstColumn && column <= lastColumn;
+        }
+    }
+
+    /**
+     * Growable sorted array of packed cells.
+     */
+    private static class PackedCells {
+
+        private long[] cells = new long[16];
+        private int size;
+
+        int insertionPoint(long packedCell) {
+            int index = Arrays.binarySearch(cells, 0, size, packedCell);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        /**
+         * @return the index of the first cell that can be in the region: cells before it are in previous rows.
+         */
+        int from(Region region) {
+            return insertionPoint(pack(region.firstRow(), region.firstColumn()));
+        }
+
+        /**
+         * @return the index after the last cell that can be in the region: cells from it on are in later rows.
+         */
+        int to(Region region) {
+            return insertionPoint(pack(region.lastRow(), region.lastColumn()) + 1);
+        }
+
+        void add(long packedCell) {
+            // Cells are usually filled in row-major order, so appending is the common case
+            int index = size > 0 && cells[size - 1] >= packedCell ? insertionPoint(packedCell) : size;
+            if (index < size && cells[index] == packedCell) {
+                return;
+            }
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, size * 2);
+            }
+            System.arraycopy(cells, index, cells, index + 1, size - index);
+            cells[index] = packedCell;
+            ++size;
+        }
+
+        void remove(long packedCell) {
+            int index = Arrays.binarySearch(cells, 0, size, packedCell);
+            if (index >= 0) {
+                System.arraycopy(cells, index + 1, cells, index, size - index - 1);
+                --size;
+            }
+        }
+    }
+}
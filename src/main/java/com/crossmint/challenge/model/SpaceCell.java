@@ -37,7 +37,9 @@ public class SpaceCell {
     }
 
     public SpaceCell fillFromString(String objectStr) {
+        AstralObject previous = astralObject;
         astralObject = AstralObjects.fromString(objectStr, this);
+        megaverse.occupiedCells().update(row, column, previous, astralObject);
         return this;
     }
 
@@ -0,0 +1,37 @@
+package com.crossmint.challenge.sharding;
+
+import com.crossmint.challenge.model.OccupiedCellIndex;
+
+/**
+ * Strategies to split the cells of a {@link com.crossmint.challenge.model.Megaverse} into disjoint shards.
+ */
+public enum Partitioning {
+
+    /**
+     * Each shard takes a contiguous range of rows.
+     */
+    ROWS,
+    /**
+     * Each shard takes the cells whose hashed (row, column) falls into it, spreading dense areas among all shards.
+     */
+    HASH;
+
+    /**
+     * Computes the shard owning a cell.
+     *
+     * @param row        the row of the cell.
+     * @param column     the column of the cell.
+     * @param rows       the number of rows of the megaverse.
+     * @param shardCount the number of shards.
+     * @return the index of the shard owning the cell, between 0 and {@code shardCount - 1}.
+     */
+    public int shardOf(int row, int column, int rows, int shardCount) {
+        return switch (this) {
+            case ROWS -> (int) ((long) row * shardCount / Math.max(rows, 1));
+            case HASH -> {
+                long hash = OccupiedCellIndex.pack(row, column) * 0x9E3779B97F4A7C15L;
+                yield Math.floorMod(hash ^ (hash >>> 32), shardCount);
+            }
+        };
+    }
+}
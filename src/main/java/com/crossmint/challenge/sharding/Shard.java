@@ -0,0 +1,65 @@
+package com.crossmint.challenge.sharding;
+
+import com.crossmint.challenge.model.AstralObject;
+import com.crossmint.challenge.model.Megaverse;
+import com.crossmint.challenge.model.OccupiedCellIndex;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Identifies one of the disjoint partitions in which a {@link Megaverse} is split to be published by several workers.
+ *
+ * @param index        the index of this shard, between 0 and {@code count - 1}.
+ * @param count        the total number of shards.
+ * @param partitioning the {@link Partitioning} used to assign cells to shards.
+ */
+public record Shard(int index, int count, @NonNull Partitioning partitioning) {
+
+    public Shard {
+        if (count < 1) {
+            throw new IllegalArgumentException("Shard count must be positive: " + count);
+        }
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException("Shard index must be in [0, " + count + "): " + index);
+        }
+    }
+
+    public boolean owns(int row, int column, int rows) {
+        return partitioning.shardOf(row, column, rows, count) == index;
+    }
+
+    /**
+     * Selects the astral objects of the megaverse assigned to this shard, in row-major order, using its {@link OccupiedCellIndex}.
+     *
+     * @param megaverse the {@link Megaverse} being published.
+     * @return the astral objects of this shard.
+     */
+    public @NonNull List<AstralObject> select(@NonNull Megaverse megaverse) {
+
+        int rows = megaverse.spaceCells().length;
+        OccupiedCellIndex occupiedCells = megaverse.occupiedCells();
+        List<AstralObject> astralObjects = new ArrayList<>();
+        OccupiedCellIndex.CellConsumer addOwned = (row, column) -> {
+            if (owns(row, column, rows)) {
+                astralObjects.add(megaverse.spaceCells()[row][column].getAstralObject().orElseThrow());
+            }
+        };
+
+        if (partitioning == Partitioning.ROWS) {
+            // Only visit the row range of this shard
+            int rowFrom = (int) (((long) index * rows + count - 1) / count);
+            int rowTo = (int) (((long) (index + 1) * rows + count - 1) / count);
+            occupiedCells.forEachInRegion(rowFrom, 0, rowTo, Integer.MAX_VALUE, addOwned);
+        } else {
+            occupiedCells.forEach(addOwned);
+        }
+        return astralObjects;
+    }
+
+    @Override
+    public String toString() {
+        return "shard " + (index + 1) + "/" + count + " (" + partitioning + ")";
+    }
+}
@@ -0,0 +1,123 @@
+package com.crossmint.challenge.sharding;
+
+import com.crossmint.challenge.connectors.MegaverseConnection;
+import com.crossmint.challenge.connectors.PublishResult;
+import com.crossmint.challenge.connectors.Scheduler;
+import com.crossmint.challenge.connectors.SystemScheduler;
+import com.crossmint.challenge.model.Megaverse;
+import lombok.NonNull;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinates the publishing of a {@link Megaverse} split into several {@link Shard}s, each one published by a
+ * {@link ShardWorker} in its own process. The coordinator reads the goal, shares it through the {@link ShardProgress}
+ * directory, optionally launches the workers on this machine, waits for all of them and merges their results.
+ * Waits go through a {@link Scheduler}, so they can be run in simulated time.
+ */
+public class ShardCoordinator {
+
+    public static final long POLL_INTERVAL_MS = 1000;
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofHours(6);
+
+    /**
+     * Starts the process of the worker publishing a shard.
+     */
+    @FunctionalInterface
+    public interface WorkerLauncher {
+        Process launch(Shard shard) throws IOException;
+    }
+
+    @NonNull
+    private final MegaverseConnection connection;
+    @NonNull
+    private final ShardProgress progress;
+    @NonNull
+    private final Partitioning partitioning;
+    @NonNull
+    private final Duration timeout;
+    @Setter
+    @NonNull
+    private Scheduler scheduler = SystemScheduler.INSTANCE;
+
+    public ShardCoordinator(@NonNull MegaverseConnection connection, @NonNull ShardProgress progress, @NonNull Partitioning partitioning,
+                            @NonNull Duration timeout) {
+        this.connection = connection;
+        this.progress = progress;
+        this.partitioning = partitioning;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Runs the sharded publish.
+     *
+     * @param workerLauncher the launcher used to start the local workers, or {@code null} if the workers are started
+     *                       elsewhere (e.g. on other nodes sharing the progress directory).
+     * @return the merged {@link PublishResult} of all the shards. Objects of shards whose worker died or did not report
+     * before the timeout are marked as {@link PublishResult.Outcome#UNKNOWN}.
+     * @throws IOException if the goal cannot be read, shared or the workers cannot be started. The workers already
+     *                     started are stopped and the goal is removed, so no worker keeps publishing it.
+     */
+    public @NonNull PublishResult run(WorkerLauncher workerLauncher) throws IOException, InterruptedException {
+
+        String[][] goalMatrix = connection.readGoalMatrix();
+        Megaverse megaverse = connection.buildMegaverse(goalMatrix);
+        System.out.println(megaverse);
+
+        String runId = UUID.randomUUID().toString();
+        progress.reset();
+        progress.writeGoal(new ShardProgress.Goal(runId, megaverse.candidateId(), progress.getShardCount(), partitioning, goalMatrix));
+
+        List<Process> workers = new ArrayList<>();
+        try {
+            if (workerLauncher != null) {
+                for (int i = 0; i < progress.getShardCount(); ++i) {
+                    workers.add(workerLauncher.launch(new Shard(i, progress.getShardCount(), partitioning)));
+                }
+            }
+            awaitWorkers(runId, workers);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            workers.forEach(Process::destroy);
+            throw e;
+        } finally {
+            progress.deleteGoal();
+        }
+
+        return ShardResult.merge(megaverse, runId, progress.readResults(runId));
+    }
+
+    /**
+     * Waits until every shard of the run reported its result, until the timeout expires or, when the workers are local,
+     * until all of them exited. Local workers still running after the timeout are stopped.
+     */
+    private void awaitWorkers(String runId, List<Process> workers) throws InterruptedException {
+        long deadline = scheduler.currentTimeMillis() + timeout.toMillis();
+        while (!progress.isComplete(runId)) {
+            if (!workers.isEmpty() && workers.stream().noneMatch(Process::isAlive)) {
+                if (!progress.isComplete(runId)) {
+                    System.err.println("Some shard workers exited without reporting their results.");
+                }
+                return;
+            }
+            if (scheduler.currentTimeMillis() >= deadline) {
+                System.err.println("Timed out waiting for the shard workers to report their results.");
+                workers.forEach(Process::destroy);
+                return;
+            }
+            scheduler.sleep(POLL_INTERVAL_MS);
+        }
+        // Every result is in, give the workers until the deadline to exit
+        for (Process worker : workers) {
+            long remainingMillis = Math.max(deadline - scheduler.currentTimeMillis(), 0);
+            if (!worker.waitFor(remainingMillis, TimeUnit.MILLISECONDS)) {
+                worker.destroy();
+            }
+        }
+    }
+}
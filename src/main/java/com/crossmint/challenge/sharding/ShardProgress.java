@@ -0,0 +1,147 @@
+package com.crossmint.challenge.sharding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Shared progress directory used by the coordinator and the workers of a sharded publish. It can be a local directory
+ * when all the workers run on the same machine, or a shared file system mount when they run on several nodes.
+ * <p>
+ * The coordinator writes the {@link Goal} once, so the workers do not need to read it from the API, and each worker
+ * writes the result of its shard when it finishes. Files are written to a temporary file and atomically moved into
+ * place, so the presence of a result file named after the run id of the goal means its shard is complete.
+ */
+@Getter
+public class ShardProgress {
+
+    public static final String GOAL_FILE = "goal.json";
+    public static final String RESULT_FILE_FORMAT = "shard-%d-of-%d-%s.json";
+    public static final String RESULT_FILE_GLOB = "shard-*.json";
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    /**
+     * The goal shared by the coordinator, identifying the run, its candidate and how its work is split, so workers can
+     * check they take part in the same run and their results can be told apart from the ones left by other runs.
+     *
+     * @param runId        the unique id of the run.
+     * @param candidateId  the candidate whose map is published.
+     * @param shardCount   the number of shards of the run.
+     * @param partitioning the {@link Partitioning} of the run.
+     * @param goal         the goal matrix, as returned by the API.
+     */
+    public record Goal(@NonNull String runId, @NonNull String candidateId, int shardCount, @NonNull Partitioning partitioning,
+                       String @NonNull [][] goal) {
+    }
+
+    @NonNull
+    private final Path directory;
+    private final int shardCount;
+
+    public ShardProgress(@NonNull Path directory, int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        this.directory = directory;
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * Prepares the directory for a new publish, removing the goal and results left by previous ones.
+     *
+     * @throws IOException if the directory cannot be created or cleaned.
+     */
+    public void reset() throws IOException {
+        Files.createDirectories(directory);
+        deleteGoal();
+        try (DirectoryStream<Path> resultFiles = Files.newDirectoryStream(directory, RESULT_FILE_GLOB)) {
+            for (Path resultFile : resultFiles) {
+                Files.deleteIfExists(resultFile);
+            }
+        }
+    }
+
+    public void writeGoal(@NonNull Goal goal) throws IOException {
+        writeAtomically(directory.resolve(GOAL_FILE), JSON_MAPPER.writeValueAsString(goal));
+    }
+
+    /**
+     * Removes the goal once a run ends, so workers started later do not publish it again.
+     *
+     * @throws IOException if the goal cannot be deleted.
+     */
+    public void deleteGoal() throws IOException {
+        Files.deleteIfExists(directory.resolve(GOAL_FILE));
+    }
+
+    public boolean hasGoal() {
+        return Files.exists(directory.resolve(GOAL_FILE));
+    }
+
+    public @NonNull Goal readGoal() throws IOException {
+        return JSON_MAPPER.readValue(directory.resolve(GOAL_FILE).toFile(), Goal.class);
+    }
+
+    public void writeResult(@NonNull ShardResult shardResult) throws IOException {
+        writeAtomically(resultFile(shardResult.runId(), shardResult.shardIndex()), JSON_MAPPER.writeValueAsString(shardResult));
+    }
+
+    /**
+     * Reads the result of a shard if it was reported for the given run.
+     *
+     * @param runId      the id of the run.
+     * @param shardIndex the index of the shard.
+     * @return the result of the shard, or empty if it is missing or belongs to another run.
+     * @throws IOException if the result file cannot be read.
+     */
+    public @NonNull Optional<ShardResult> readResult(@NonNull String runId, int shardIndex) throws IOException {
+        Path resultFile = resultFile(runId, shardIndex);
+        if (!Files.exists(resultFile)) {
+            return Optional.empty();
+        }
+        return Optional.of(JSON_MAPPER.readValue(resultFile.toFile(), ShardResult.class))
+            .filter(shardResult -> shardResult.runId().equals(runId));
+    }
+
+    /**
+     * @param runId the id of the run.
+     * @return the results of the shards of the run that already finished.
+     * @throws IOException if a result file cannot be read.
+     */
+    public @NonNull List<ShardResult> readResults(@NonNull String runId) throws IOException {
+        List<ShardResult> shardResults = new ArrayList<>();
+        for (int i = 0; i < shardCount; ++i) {
+            readResult(runId, i).ifPresent(shardResults::add);
+        }
+        return shardResults;
+    }
+
+    public boolean isComplete(@NonNull String runId) {
+        for (int i = 0; i < shardCount; ++i) {
+            if (!Files.exists(resultFile(runId, i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Path resultFile(String runId, int shardIndex) {
+        return directory.resolve(String.format(RESULT_FILE_FORMAT, shardIndex, shardCount, runId));
+    }
+
+    private void writeAtomically(Path target, String content) throws IOException {
+        Files.createDirectories(directory);
+        Path tempFile = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        Files.writeString(tempFile, content);
+        Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,65 @@
+package com.crossmint.challenge.sharding;
+
+import com.crossmint.challenge.connectors.PublishResult;
+import com.crossmint.challenge.model.AstralObject;
+import com.crossmint.challenge.model.Megaverse;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializable report of the {@link PublishResult} of a shard, identifying each astral object by its row and column
+ * so it can be shared between processes and merged back by the coordinator.
+ *
+ * @param runId      the id of the run whose goal was published, as written by the coordinator in the {@link ShardProgress.Goal}.
+ * @param shardIndex the index of the shard that published the cells.
+ * @param cells      the outcome of each published cell.
+ */
+public record ShardResult(@NonNull String runId, int shardIndex, @NonNull List<CellOutcome> cells) {
+
+    public record CellOutcome(int row, int column, @NonNull PublishResult.Outcome outcome, int attempts, int lastStatusCode) {
+    }
+
+    public static @NonNull ShardResult from(@NonNull String runId, int shardIndex, @NonNull PublishResult publishResult) {
+        return new ShardResult(runId, shardIndex, publishResult.cellResults().stream()
+            .map(cellResult -> new CellOutcome(cellResult.astralObject().getRow(), cellResult.astralObject().getColumn(),
+                cellResult.outcome(), cellResult.attempts(), cellResult.lastStatusCode()))
+            .toList());
+    }
+
+    /**
+     * Merges the results of all the shards into a single {@link PublishResult} covering every astral object of the megaverse.
+     * Results of other runs are ignored, since their cells belong to a different goal. Objects not reported by any
+     * shard of this run are marked as {@link PublishResult.Outcome#UNKNOWN}, so they can be re-driven.
+     *
+     * @param megaverse    the {@link Megaverse} that was published.
+     * @param runId        the id of the run that published the megaverse.
+     * @param shardResults the results reported by the shards.
+     * @return the merged {@link PublishResult}, in the order of {@link Megaverse#astralObjects()}.
+     */
+    public static @NonNull PublishResult merge(@NonNull Megaverse megaverse, @NonNull String runId, @NonNull List<ShardResult> shardResults) {
+
+        Map<AstralObject, CellOutcome> outcomes = new HashMap<>();
+        for (ShardResult shardResult : shardResults) {
+            if (!shardResult.runId().equals(runId)) {
+                continue;
+            }
+            for (CellOutcome cell : shardResult.cells()) {
+                megaverse.spaceCells()[cell.row()][cell.column()].getAstralObject()
+                    .ifPresent(astralObject -> outcomes.put(astralObject, cell));
+            }
+        }
+
+        List<PublishResult.CellResult> cellResults = new ArrayList<>();
+        for (AstralObject astralObject : megaverse.astralObjects()) {
+            CellOutcome cell = outcomes.get(astralObject);
+            cellResults.add(cell == null
+                ? new PublishResult.CellResult(astralObject, PublishResult.Outcome.UNKNOWN, 0, PublishResult.NO_STATUS)
+                : new PublishResult.CellResult(astralObject, cell.outcome(), cell.attempts(), cell.lastStatusCode()));
+        }
+        return new PublishResult(cellResults);
+    }
+}
@@ -0,0 +1,77 @@
+package com.crossmint.challenge.sharding;
+
+import com.crossmint.challenge.connectors.MegaverseConnection;
+import com.crossmint.challenge.connectors.PublishResult;
+import com.crossmint.challenge.connectors.Scheduler;
+import com.crossmint.challenge.connectors.SystemScheduler;
+import com.crossmint.challenge.model.Megaverse;
+import lombok.NonNull;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Publishes the astral objects of a single {@link Shard}, reading the goal from the {@link ShardProgress} directory
+ * and reporting its result there, tagged with the run id of the goal, when it finishes. Waits go through a
+ * {@link Scheduler}, so they can be run in simulated time.
+ */
+public class ShardWorker {
+
+    public static final long POLL_INTERVAL_MS = 1000;
+    public static final Duration DEFAULT_GOAL_TIMEOUT = Duration.ofMinutes(10);
+
+    @NonNull
+    private final MegaverseConnection connection;
+    @NonNull
+    private final ShardProgress progress;
+    @NonNull
+    private final Shard shard;
+    @NonNull
+    private final Duration goalTimeout;
+    @Setter
+    @NonNull
+    private Scheduler scheduler = SystemScheduler.INSTANCE;
+
+    public ShardWorker(@NonNull MegaverseConnection connection, @NonNull ShardProgress progress, @NonNull Shard shard,
+                       @NonNull Duration goalTimeout) {
+        this.connection = connection;
+        this.progress = progress;
+        this.shard = shard;
+        this.goalTimeout = goalTimeout;
+    }
+
+    /**
+     * Waits for the coordinator to write the goal, publishes the astral objects of the shard and writes its result.
+     *
+     * @return the {@link PublishResult} of the shard.
+     * @throws IOException if the goal is not written in time, cannot be read, does not match the candidate, shard count
+     *                     or partitioning of this worker, or if the result cannot be written.
+     */
+    public @NonNull PublishResult run() throws IOException, InterruptedException {
+
+        long deadline = scheduler.currentTimeMillis() + goalTimeout.toMillis();
+        while (!progress.hasGoal()) {
+            if (scheduler.currentTimeMillis() >= deadline) {
+                throw new IOException("Timed out waiting for the goal in " + progress.getDirectory());
+            }
+            scheduler.sleep(POLL_INTERVAL_MS);
+        }
+
+        ShardProgress.Goal goal = progress.readGoal();
+        if (!goal.candidateId().equals(connection.getCandidateId())) {
+            throw new IOException("Run " + goal.runId() + " publishes the map of candidate " + goal.candidateId()
+                + ", not " + connection.getCandidateId());
+        }
+        // A worker splitting the work differently would publish cells of other shards and report a result nobody reads
+        if (goal.shardCount() != shard.count() || goal.partitioning() != shard.partitioning()) {
+            throw new IOException("Run " + goal.runId() + " is split in " + goal.shardCount() + " shards by " + goal.partitioning()
+                + ", not matching " + shard);
+        }
+
+        Megaverse megaverse = connection.buildMegaverse(goal.goal());
+        PublishResult result = connection.publishAll(shard.select(megaverse));
+        progress.writeResult(ShardResult.from(goal.runId(), shard.index(), result));
+        return result;
+    }
+}
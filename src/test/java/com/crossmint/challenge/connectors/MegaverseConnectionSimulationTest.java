@@ -0,0 +1,122 @@
+package com.crossmint.challenge.connectors;
+
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MegaverseConnectionSimulationTest {
+
+    private static final int ROWS = 250;
+    private static final int COLUMNS = 400;
+    // Wall time allowed for a simulation that spans more than a day of virtual time
+    private static final long MAX_SIMULATION_MILLIS = 10_000;
+
+    private record SimulatedResponse(int statusCode, HttpRequest request) implements HttpResponse<String> {
+
+        @Override
+        public Optional<HttpResponse<String>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return HttpHeaders.of(Map.of(), (name, value) -> true);
+        }
+
+        @Override
+        public String body() {
+            return "";
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+
+    private record Simulation(PublishResult result, long elapsedVirtualMillis, int sentRequests) {
+    }
+
+    private String[][] buildFullGoal(int rows, int columns) {
+        String[][] goalMatrix = new String[rows][columns];
+        for (String[] row : goalMatrix) {
+            Arrays.fill(row, "POLYANET");
+        }
+        return goalMatrix;
+    }
+
+    private Simulation simulatePublish(long seed, double tooManyRequestsRate, int rows, int columns) throws InterruptedException {
+        // - Simulate a server answering 429 randomly with the given rate and 200 otherwise
+        Random serverRandom = new Random(seed);
+        AtomicInteger sentRequests = new AtomicInteger();
+        MegaverseConnection connection = new MegaverseConnection("testCandidateId") {
+            @Override
+            CompletableFuture<HttpResponse<String>> send(HttpClient httpClient, HttpRequest request) {
+                sentRequests.incrementAndGet();
+                int statusCode = serverRandom.nextDouble() < tooManyRequestsRate ? 429 : 200;
+                return CompletableFuture.completedFuture(new SimulatedResponse(statusCode, request));
+            }
+        };
+        VirtualScheduler scheduler = new VirtualScheduler(seed);
+        connection.setScheduler(scheduler);
+        connection.setRequestLogging(false);
+
+        PublishResult result = connection.publishState(connection.buildMegaverse(buildFullGoal(rows, columns)));
+        return new Simulation(result, scheduler.currentTimeMillis(), sentRequests.get());
+    }
+
+    @Test
+    public void testLargePublishWithHeavyRateLimitingRunsInVirtualTime() throws InterruptedException {
+        // Act: publish 100k astral objects with 20% of the requests rate-limited
+        long startTime = System.currentTimeMillis();
+        Simulation simulation = simulatePublish(7, 0.2, ROWS, COLUMNS);
+        long elapsedMillis = System.currentTimeMillis() - startTime;
+
+        // Assert: check every object is published after its retries, spending far more virtual time than real time
+        assertThat(simulation.result().isSuccessful()).isTrue();
+        assertThat(simulation.result().cellResults()).hasSize(ROWS * COLUMNS);
+        assertThat(simulation.result().cellResults().stream().mapToInt(PublishResult.CellResult::attempts).sum())
+            .isEqualTo(simulation.sentRequests())
+            .isGreaterThan(ROWS * COLUMNS);
+        assertThat(simulation.elapsedVirtualMillis()).isGreaterThanOrEqualTo((long) ROWS * COLUMNS * MegaverseConnection.INITIAL_DELAY_MS);
+        assertThat(elapsedMillis).isLessThan(MAX_SIMULATION_MILLIS);
+    }
+
+    @Test
+    public void testSimulationIsDeterministic() throws InterruptedException {
+        // Act: run the same simulation twice, with half of the requests rate-limited
+        Simulation first = simulatePublish(11, 0.5, 100, 100);
+        Simulation second = simulatePublish(11, 0.5, 100, 100);
+
+        // Assert: check both runs retry the same way and take the same virtual time
+        List<Integer> firstAttempts = first.result().cellResults().stream().map(PublishResult.CellResult::attempts).toList();
+        List<Integer> secondAttempts = second.result().cellResults().stream().map(PublishResult.CellResult::attempts).toList();
+        assertThat(firstAttempts).isEqualTo(secondAttempts);
+        assertThat(first.elapsedVirtualMillis()).isEqualTo(second.elapsedVirtualMillis());
+        assertThat(first.sentRequests()).isEqualTo(second.sentRequests());
+    }
+}
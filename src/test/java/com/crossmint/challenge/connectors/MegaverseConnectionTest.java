@@ -15,8 +15,9 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +29,9 @@ public class MegaverseConnectionTest {
     private HttpClient mockHttpClient;
     @Mock
     private HttpResponse<String> mockHttpResponse;
+    @Mock
+    private HttpResponse<String> mockRateLimitedResponse;
+    private VirtualScheduler scheduler;
 
     private Megaverse buildDummyMegaverse() {
         SpaceCell[][] grid = new SpaceCell[2][2];
@@ -45,10 +49,13 @@ public class MegaverseConnectionTest {
     public void setUp() {
         when(connection.buildHttpClient())
             .thenReturn(mockHttpClient);
+        // Run the delays and retries in simulated time
+        scheduler = new VirtualScheduler(42);
+        connection.setScheduler(scheduler);
     }
 
     @Test
-    public void testPublishStatePostsCorrectly() throws IOException, InterruptedException {
+    public void testPublishStatePostsCorrectly() throws InterruptedException {
         // Arrange: Define the input parameters and mocks.
         Megaverse dummyMegaverse = buildDummyMegaverse();
         AstralObject dummyObject = dummyMegaverse.spaceCells()[0][1].getAstralObject().orElse(null);
@@ -63,15 +70,20 @@ public class MegaverseConnectionTest {
             .thenReturn(CompletableFuture.completedFuture(mockHttpResponse));
 
         // Act: publish the state
-        connection.publishState(dummyMegaverse);
+        PublishResult result = connection.publishState(dummyMegaverse);
 
-        // Assert: check the client is called once
+        // Assert: check the client is called once and the cell is reported as published
         verify(mockHttpClient, times(1))
             .sendAsync(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString()));
+        assertThat(result.isSuccessful()).isTrue();
+        assertThat(result.cellResults()).hasSize(1);
+        assertThat(result.cellResults().get(0).astralObject()).isSameAs(dummyObject);
+        assertThat(result.cellResults().get(0).attempts()).isEqualTo(1);
+        assertThat(result.cellResults().get(0).lastStatusCode()).isEqualTo(200);
     }
 
     @Test
-    public void testPublishStateDoesNotRetryOn500Error() {
+    public void testPublishStateDoesNotRetryOn500Error() throws InterruptedException {
         // Arrange: Define the input parameters and mocks.
         Megaverse dummyMegaverse = buildDummyMegaverse();
 
@@ -81,15 +93,156 @@ public class MegaverseConnectionTest {
         when(mockHttpClient.sendAsync(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString())))
             .thenReturn(CompletableFuture.completedFuture(mockHttpResponse));
 
-        // Act & Assert: check the 500 error is not retried and method throws exception
-        assertThrows(IOException.class, () -> connection.publishState(dummyMegaverse));
+        // Act: publish the state
+        PublishResult result = connection.publishState(dummyMegaverse);
 
+        // Assert: check the 500 error is not retried and the cell is reported as rejected
         verify(mockHttpClient, times(1))
             .sendAsync(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString()));
+        assertThat(result.isSuccessful()).isFalse();
+        assertThat(result.failed()).hasSize(1);
+        assertThat(result.failed().get(0).outcome()).isEqualTo(PublishResult.Outcome.REJECTED);
+        assertThat(result.failed().get(0).attempts()).isEqualTo(1);
+        assertThat(result.failed().get(0).lastStatusCode()).isEqualTo(500);
+    }
+
+    @Test
+    public void testRepublishFailedOnlyResendsFailedCells() throws InterruptedException {
+        // Arrange: Define the input parameters and mocks.
+        Megaverse dummyMegaverse = buildDummyMegaverse();
+        dummyMegaverse.spaceCells()[1][0].fillFromString("RED_SOLOON");
+        AstralObject failingObject = dummyMegaverse.spaceCells()[1][0].getAstralObject().orElse(null);
+        HttpRequest failingRequest = connection.buildPOSTRequest(failingObject);
+
+        // - Succeed the polyanet, fail the soloon with a 500 and succeed it on the re-drive
+        when(mockHttpResponse.request())
+            .thenReturn(failingRequest);
+        when(mockHttpResponse.statusCode())
+            .thenReturn(200)
+            .thenReturn(500)
+            .thenReturn(200);
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString())))
+            .thenReturn(CompletableFuture.completedFuture(mockHttpResponse));
+
+        // Act: publish the state and re-drive the failed cells
+        PublishResult result = connection.publishState(dummyMegaverse);
+        assertThat(result.failed()).extracting(PublishResult.CellResult::astralObject).containsExactly(failingObject);
+        PublishResult redriveResult = connection.republishFailed(result);
+
+        // Assert: check only the failed cell is sent again and the merged result is complete
+        verify(mockHttpClient, times(3))
+            .sendAsync(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString()));
+        assertThat(redriveResult.isSuccessful()).isTrue();
+        assertThat(redriveResult.cellResults()).hasSize(2);
+    }
+
+    @Test
+    public void testPublishStateHedgesSlowRequests() throws InterruptedException {
+        // Arrange: Define the input parameters and mocks.
+        Megaverse dummyMegaverse = buildDummyMegaverse();
+        dummyMegaverse.spaceCells()[1][0].fillFromString("POLYANET");
+        AstralObject dummyObject = dummyMegaverse.spaceCells()[0][1].getAstralObject().orElse(null);
+        HttpRequest dummyRequest = connection.buildPOSTRequest(dummyObject);
+        connection.setHedgingPolicy(new HedgingPolicy(0.5, 1, 1.0, 60_000));
+        CompletableFuture<HttpResponse<String>> stuckResponse = new CompletableFuture<>();
+
+        when(mockHttpResponse.request())
+            .thenReturn(dummyRequest);
+        when(mockHttpResponse.statusCode())
+            .thenReturn(200);
+        // - Succeed the first object to get a latency sample, get stuck on the second and succeed its hedge
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString())))
+            .thenReturn(CompletableFuture.completedFuture(mockHttpResponse))
+            .thenReturn(stuckResponse)
+            .thenReturn(CompletableFuture.completedFuture(mockHttpResponse));
+
+        // Act: publish the state
+        PublishResult result = connection.publishState(dummyMegaverse);
+
+        // Assert: check the stuck request is hedged, the hedge wins and the stuck request is cancelled
+        verify(mockHttpClient, times(3))
+            .sendAsync(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString()));
+        assertThat(result.isSuccessful()).isTrue();
+        assertThat(result.cellResults()).extracting(PublishResult.CellResult::attempts).containsExactly(1, 1);
+        assertThat(stuckResponse.isCancelled()).isTrue();
+    }
+
+    @Test
+    public void testRateLimitedHedgeDoesNotBeatInFlightRequest() throws InterruptedException {
+        // Arrange: Define the input parameters and mocks.
+        Megaverse dummyMegaverse = buildDummyMegaverse();
+        dummyMegaverse.spaceCells()[1][0].fillFromString("POLYANET");
+        AstralObject dummyObject = dummyMegaverse.spaceCells()[0][1].getAstralObject().orElse(null);
+        HttpRequest dummyRequest = connection.buildPOSTRequest(dummyObject);
+        connection.setHedgingPolicy(new HedgingPolicy(0.5, 1, 1.0, 60_000));
+        CompletableFuture<HttpResponse<String>> slowResponse = new CompletableFuture<>();
+
+        when(mockHttpResponse.request())
+            .thenReturn(dummyRequest);
+        when(mockHttpResponse.statusCode())
+            .thenReturn(200);
+        when(mockRateLimitedResponse.statusCode())
+            .thenReturn(429);
+        // - Succeed the first object to get a latency sample, then get a 429 on the hedge of the second while its
+        //   primary request is still in flight and succeeds later
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString())))
+            .thenReturn(CompletableFuture.completedFuture(mockHttpResponse))
+            .thenReturn(slowResponse)
+            .thenAnswer(invocation -> {
+                scheduler.delayedExecutor(100, TimeUnit.MILLISECONDS).execute(() -> slowResponse.complete(mockHttpResponse));
+                return CompletableFuture.completedFuture(mockRateLimitedResponse);
+            });
+
+        // Act: publish the state
+        PublishResult result = connection.publishState(dummyMegaverse);
+
+        // Assert: check the 429 of the hedge did not cancel the primary request, which succeeds without retries
+        verify(mockHttpClient, times(3))
+            .sendAsync(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString()));
+        assertThat(slowResponse.isCancelled()).isFalse();
+        assertThat(result.isSuccessful()).isTrue();
+        assertThat(result.cellResults()).extracting(PublishResult.CellResult::attempts).containsExactly(1, 1);
+    }
+
+    @Test
+    public void testRateLimitedResponsesStopHedging() throws InterruptedException {
+        // Arrange: Define the input parameters and mocks.
+        Megaverse dummyMegaverse = buildDummyMegaverse();
+        dummyMegaverse.spaceCells()[1][0].fillFromString("POLYANET");
+        AstralObject dummyObject = dummyMegaverse.spaceCells()[0][1].getAstralObject().orElse(null);
+        HttpRequest dummyRequest = connection.buildPOSTRequest(dummyObject);
+        connection.setHedgingPolicy(new HedgingPolicy(0.5, 1, 1.0, 60_000));
+
+        when(mockHttpResponse.request())
+            .thenReturn(dummyRequest);
+        when(mockHttpResponse.statusCode())
+            .thenReturn(200);
+        when(mockRateLimitedResponse.request())
+            .thenReturn(dummyRequest);
+        when(mockRateLimitedResponse.statusCode())
+            .thenReturn(429);
+        // - Succeed the first object to get a latency sample, then get a 429 on the second and a slow retry
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString())))
+            .thenReturn(CompletableFuture.completedFuture(mockHttpResponse))
+            .thenReturn(CompletableFuture.completedFuture(mockRateLimitedResponse))
+            .thenAnswer(invocation -> {
+                CompletableFuture<HttpResponse<String>> slowResponse = new CompletableFuture<>();
+                scheduler.delayedExecutor(100, TimeUnit.MILLISECONDS).execute(() -> slowResponse.complete(mockHttpResponse));
+                return slowResponse;
+            });
+
+        // Act: publish the state
+        PublishResult result = connection.publishState(dummyMegaverse);
+
+        // Assert: check the slow retry is not hedged while the API is rate-limiting
+        verify(mockHttpClient, times(3))
+            .sendAsync(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString()));
+        assertThat(result.isSuccessful()).isTrue();
+        assertThat(result.cellResults()).extracting(PublishResult.CellResult::attempts).containsExactly(1, 2);
     }
 
     @Test
-    public void testPublishStateRetriesOnError() throws IOException, InterruptedException {
+    public void testPublishStateRetriesOnError() throws InterruptedException {
         // Arrange: Define the input parameters and mocks.
         Megaverse dummyMegaverse = buildDummyMegaverse();
         AstralObject dummyObject = dummyMegaverse.spaceCells()[0][1].getAstralObject().orElse(null);
@@ -105,15 +258,17 @@ public class MegaverseConnectionTest {
             .thenReturn(CompletableFuture.completedFuture(mockHttpResponse));
 
         // Act: publish the state
-        connection.publishState(dummyMegaverse);
+        PublishResult result = connection.publishState(dummyMegaverse);
 
-        // Assert: check the client is called twice
+        // Assert: check the client is called twice and both attempts are reported
         verify(mockHttpClient, times(2))
             .sendAsync(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString()));
+        assertThat(result.isSuccessful()).isTrue();
+        assertThat(result.cellResults().get(0).attempts()).isEqualTo(2);
     }
 
     @Test
-    public void testPublishStateRetriesOn429Error() throws IOException, InterruptedException {
+    public void testPublishStateRetriesOn429Error() throws InterruptedException {
         // Arrange: Define the input parameters and mocks.
         Megaverse dummyMegaverse = buildDummyMegaverse();
         AstralObject dummyObject = dummyMegaverse.spaceCells()[0][1].getAstralObject().orElse(null);
@@ -130,10 +285,12 @@ public class MegaverseConnectionTest {
             .thenReturn(CompletableFuture.completedFuture(mockHttpResponse));
 
         // Act: publish the state
-        connection.publishState(dummyMegaverse);
+        PublishResult result = connection.publishState(dummyMegaverse);
 
-        // Assert: check the client is called twice
+        // Assert: check the client is called twice and both attempts are reported
         verify(mockHttpClient, times(2))
             .sendAsync(any(HttpRequest.class), eq(HttpResponse.BodyHandlers.ofString()));
+        assertThat(result.isSuccessful()).isTrue();
+        assertThat(result.cellResults().get(0).attempts()).isEqualTo(2);
     }
 }
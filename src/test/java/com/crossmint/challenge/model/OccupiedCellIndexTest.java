@@ -0,0 +1,122 @@
+package com.crossmint.challenge.model;
+
+import com.crossmint.challenge.connectors.MegaverseConnection;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OccupiedCellIndexTest {
+
+    private final MegaverseConnection connection = new MegaverseConnection("testCandidate");
+
+    @Test
+    public void testIndexTracksOccupiedCellsByType() {
+        // Arrange: Build a megaverse with some astral objects.
+        Megaverse megaverse = connection.buildMegaverse(new String[][]{
+            {"POLYANET", "SPACE", "RED_SOLOON"},
+            {"SPACE", "POLYANET", "SPACE"},
+            {"UP_COMETH", "SPACE", "POLYANET"}
+        });
+        OccupiedCellIndex index = megaverse.occupiedCells();
+
+        // Act & Assert: Check counts per type
+        assertThat(index.count()).isEqualTo(5);
+        assertThat(index.count(Polyanet.class)).isEqualTo(3);
+        assertThat(index.count(Soloon.class)).isEqualTo(1);
+        assertThat(index.count(Cometh.class)).isEqualTo(1);
+        assertThat(index.types()).containsExactly(Polyanet.class, Soloon.class, Cometh.class);
+
+        // Act & Assert: Check per type iteration is in row-major order
+        List<String> polyanetCells = new ArrayList<>();
+        index.forEach(Polyanet.class, (row, column) -> polyanetCells.add(row + "," + column));
+        assertThat(polyanetCells).containsExactly("0,0", "1,1", "2,2");
+
+        // Act & Assert: Check the astral objects of the megaverse are listed from the index in row-major order
+        assertThat(megaverse.astralObjects()).extracting(astralObject -> astralObject.getRow() + "," + astralObject.getColumn())
+            .containsExactly("0,0", "0,2", "1,1", "2,0", "2,2");
+    }
+
+    @Test
+    public void testRegionQueries() {
+        // Arrange: Build a megaverse with some astral objects.
+        Megaverse megaverse = connection.buildMegaverse(new String[][]{
+            {"POLYANET", "POLYANET", "SPACE", "POLYANET"},
+            {"SPACE", "POLYANET", "POLYANET", "SPACE"},
+            {"POLYANET", "SPACE", "POLYANET", "POLYANET"}
+        });
+        OccupiedCellIndex index = megaverse.occupiedCells();
+
+        // Act & Assert: Check rectangular regions, with inclusive start and exclusive end
+        assertThat(index.countInRegion(Polyanet.class, 0, 0, 3, 4)).isEqualTo(8);
+        assertThat(index.countInRegion(Polyanet.class, 0, 1, 2, 3)).isEqualTo(3);
+        assertThat(index.countInRegion(Polyanet.class, 1, 0, 3, 1)).isEqualTo(1);
+        assertThat(index.countInRegion(Polyanet.class, 2, 2, 2, 4)).isZero();
+        assertThat(index.countInRegion(Soloon.class, 0, 0, 3, 4)).isZero();
+
+        List<String> regionCells = new ArrayList<>();
+        index.forEachInRegion(Polyanet.class, 1, 1, 3, 3, (row, column) -> regionCells.add(row + "," + column));
+        assertThat(regionCells).containsExactly("1,1", "1,2", "2,2");
+
+        // Act & Assert: Check region queries over every type are merged in row-major order
+        megaverse.spaceCells()[1][2].fillFromString("RED_SOLOON");
+        megaverse.spaceCells()[2][1].fillFromString("UP_COMETH");
+        List<String> mergedCells = new ArrayList<>();
+        index.forEachInRegion(1, 1, 3, 3, (row, column) -> mergedCells.add(row + "," + column));
+        assertThat(mergedCells).containsExactly("1,1", "1,2", "2,1", "2,2");
+    }
+
+    @Test
+    public void testIndexIsUpdatedWhenCellsChange() {
+        // Arrange: Build a megaverse with some astral objects.
+        Megaverse megaverse = connection.buildMegaverse(new String[][]{
+            {"POLYANET", "SPACE"},
+            {"SPACE", "POLYANET"}
+        });
+        OccupiedCellIndex index = megaverse.occupiedCells();
+
+        // Act: Replace an astral object and clear another one
+        megaverse.spaceCells()[0][0].fillFromString("BLUE_SOLOON");
+        megaverse.spaceCells()[1][1].fillFromString("SPACE");
+        megaverse.spaceCells()[0][1].fillFromString("POLYANET");
+
+        // Assert: Check the index reflects the changes
+        assertThat(index.count()).isEqualTo(2);
+        assertThat(index.packedCells(Soloon.class)).containsExactly(OccupiedCellIndex.pack(0, 0));
+        assertThat(index.packedCells(Polyanet.class)).containsExactly(OccupiedCellIndex.pack(0, 1));
+    }
+
+    @Test
+    public void testIndexSupportsLargeCoordinates() {
+        // Arrange: Build a megaverse with an astral object beyond 16 bits per row and column
+        String[][] goalMatrix = new String[70_001][0];
+        goalMatrix[70_000] = new String[70_001];
+        Arrays.fill(goalMatrix[70_000], "SPACE");
+        goalMatrix[70_000][70_000] = "POLYANET";
+
+        // Act
+        Megaverse megaverse = connection.buildMegaverse(goalMatrix);
+
+        // Assert: Check the cell is indexed and can be queried
+        OccupiedCellIndex index = megaverse.occupiedCells();
+        assertThat(index.countInRegion(Polyanet.class, 70_000, 70_000, 70_001, 70_001)).isEqualTo(1);
+        assertThat(megaverse.astralObjects()).extracting(astralObject -> astralObject.getRow() + "," + astralObject.getColumn())
+            .containsExactly("70000,70000");
+    }
+
+    @Test
+    public void testMegaverseRejectsAnIndexInUse() {
+        // Arrange: Build a megaverse with some astral objects.
+        Megaverse megaverse = connection.buildMegaverse(new String[][]{
+            {"POLYANET", "SPACE"}
+        });
+
+        // Act & Assert: Check the index of a megaverse cannot be shared with a new one
+        assertThatThrownBy(() -> new Megaverse("testCandidate", new SpaceCell[0][0], megaverse.occupiedCells()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,185 @@
+package com.crossmint.challenge.sharding;
+
+import com.crossmint.challenge.connectors.MegaverseConnection;
+import com.crossmint.challenge.connectors.PublishResult;
+import com.crossmint.challenge.connectors.VirtualScheduler;
+import com.crossmint.challenge.model.AstralObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ShardCoordinatorTest {
+
+    private static final String[][] GOAL = {
+        {"POLYANET", "SPACE", "RED_SOLOON"},
+        {"SPACE", "POLYANET", "SPACE"},
+        {"UP_COMETH", "SPACE", "POLYANET"}
+    };
+
+    @TempDir
+    private Path shardDir;
+
+    /**
+     * Local worker running in a thread of the test instead of a process of its own.
+     */
+    private static class ThreadProcess extends Process {
+
+        private final Thread thread;
+        private volatile boolean destroyed;
+
+        ThreadProcess(Runnable task) {
+            thread = new Thread(task);
+            thread.start();
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return OutputStream.nullOutputStream();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public int waitFor() throws InterruptedException {
+            thread.join();
+            return 0;
+        }
+
+        @Override
+        public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException {
+            thread.join(Math.max(unit.toMillis(timeout), 1));
+            return !thread.isAlive();
+        }
+
+        @Override
+        public int exitValue() {
+            if (thread.isAlive()) {
+                throw new IllegalThreadStateException("Worker still running");
+            }
+            return 0;
+        }
+
+        @Override
+        public void destroy() {
+            destroyed = true;
+            thread.interrupt();
+        }
+
+        @Override
+        public boolean isAlive() {
+            return thread.isAlive();
+        }
+    }
+
+    private MegaverseConnection buildGoalConnection() {
+        return new MegaverseConnection("testCandidate") {
+            @Override
+            public String[][] readGoalMatrix() {
+                return GOAL;
+            }
+        };
+    }
+
+    @Test
+    public void testWorkersPublishTheirShardsAndResultsAreMerged() throws IOException, InterruptedException {
+        // Arrange: Run each worker in a thread with a connection that succeeds every astral object it publishes
+        ShardProgress progress = new ShardProgress(shardDir, 3);
+        List<String> publishedCells = Collections.synchronizedList(new ArrayList<>());
+        ShardCoordinator.WorkerLauncher workerLauncher = shard -> new ThreadProcess(() -> {
+            MegaverseConnection workerConnection = new MegaverseConnection("testCandidate") {
+                @Override
+                public PublishResult publishAll(List<AstralObject> astralObjects) {
+                    astralObjects.forEach(astralObject -> publishedCells.add(astralObject.getRow() + "," + astralObject.getColumn()));
+                    return new PublishResult(astralObjects.stream()
+                        .map(astralObject -> new PublishResult.CellResult(astralObject, PublishResult.Outcome.SUCCEEDED, 1, 200))
+                        .toList());
+                }
+            };
+            try {
+                new ShardWorker(workerConnection, new ShardProgress(shardDir, 3), shard, Duration.ofMinutes(1)).run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ShardCoordinator coordinator = new ShardCoordinator(buildGoalConnection(), progress, Partitioning.HASH, Duration.ofMinutes(1));
+
+        // Act: Run the sharded publish
+        PublishResult result = coordinator.run(workerLauncher);
+
+        // Assert: Check every astral object was published once by its shard and the merged result is successful
+        assertThat(result.isSuccessful()).isTrue();
+        assertThat(result.cellResults()).extracting(cellResult -> cellResult.astralObject().getRow() + "," + cellResult.astralObject().getColumn())
+            .containsExactly("0,0", "0,2", "1,1", "2,0", "2,2");
+        assertThat(publishedCells).containsExactlyInAnyOrder("0,0", "0,2", "1,1", "2,0", "2,2");
+        assertThat(progress.hasGoal()).isFalse();
+    }
+
+    @Test
+    public void testMissingWorkersAreReportedAsUnknownAfterTimeout() throws IOException, InterruptedException {
+        // Arrange: Wait in simulated time for remote workers that never report
+        ShardProgress progress = new ShardProgress(shardDir, 2);
+        ShardCoordinator coordinator = new ShardCoordinator(buildGoalConnection(), progress, Partitioning.ROWS, Duration.ofMinutes(10));
+        VirtualScheduler scheduler = new VirtualScheduler(42);
+        coordinator.setScheduler(scheduler);
+
+        // Act: Run the coordinator without local workers
+        PublishResult result = coordinator.run(null);
+
+        // Assert: Check the coordinator gave up at the timeout and every astral object can be re-driven
+        assertThat(scheduler.currentTimeMillis()).isGreaterThanOrEqualTo(Duration.ofMinutes(10).toMillis());
+        assertThat(result.succeeded()).isEmpty();
+        assertThat(result.failed()).hasSize(5)
+            .allMatch(cellResult -> cellResult.outcome() == PublishResult.Outcome.UNKNOWN);
+        assertThat(progress.hasGoal()).isFalse();
+    }
+
+    @Test
+    public void testStartedWorkersAreStoppedWhenLaunchFails() {
+        // Arrange: Start a worker that runs until stopped for the first shard and fail to start the second one
+        ShardProgress progress = new ShardProgress(shardDir, 2);
+        List<ThreadProcess> workers = new ArrayList<>();
+        ShardCoordinator.WorkerLauncher workerLauncher = shard -> {
+            if (shard.index() > 0) {
+                throw new IOException("Cannot start " + shard);
+            }
+            ThreadProcess worker = new ThreadProcess(() -> {
+                try {
+                    Thread.sleep(Duration.ofMinutes(1).toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            workers.add(worker);
+            return worker;
+        };
+        ShardCoordinator coordinator = new ShardCoordinator(buildGoalConnection(), progress, Partitioning.ROWS, Duration.ofMinutes(1));
+
+        // Act & Assert: Check the launch error is reported, the started worker is stopped and the goal removed
+        assertThatThrownBy(() -> coordinator.run(workerLauncher)).isInstanceOf(IOException.class);
+        assertThat(workers).hasSize(1).allMatch(worker -> worker.destroyed);
+        assertThat(progress.hasGoal()).isFalse();
+    }
+}
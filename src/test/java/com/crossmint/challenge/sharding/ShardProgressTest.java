@@ -0,0 +1,120 @@
+package com.crossmint.challenge.sharding;
+
+import com.crossmint.challenge.connectors.MegaverseConnection;
+import com.crossmint.challenge.connectors.PublishResult;
+import com.crossmint.challenge.model.AstralObject;
+import com.crossmint.challenge.model.Megaverse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ShardProgressTest {
+
+    private static final String[][] GOAL = {
+        {"POLYANET", "SPACE", "RED_SOLOON"},
+        {"SPACE", "POLYANET", "SPACE"},
+        {"UP_COMETH", "SPACE", "POLYANET"}
+    };
+
+    private static final String RUN_ID = "run-1";
+    private static final String STALE_RUN_ID = "run-0";
+
+    @TempDir
+    private Path shardDir;
+    private final MegaverseConnection connection = new MegaverseConnection("testCandidate");
+
+    private PublishResult succeedAll(List<AstralObject> astralObjects) {
+        return new PublishResult(astralObjects.stream()
+            .map(astralObject -> new PublishResult.CellResult(astralObject, PublishResult.Outcome.SUCCEEDED, 1, 200))
+            .toList());
+    }
+
+    @Test
+    public void testResultsAreSharedAndMerged() throws IOException {
+        // Arrange: Share the goal and build the megaverse of each side from it
+        ShardProgress progress = new ShardProgress(shardDir, 2);
+        progress.reset();
+        progress.writeGoal(new ShardProgress.Goal(RUN_ID, "testCandidate", 2, Partitioning.HASH, GOAL));
+        ShardProgress.Goal goal = progress.readGoal();
+        assertThat(goal.runId()).isEqualTo(RUN_ID);
+        assertThat(goal.candidateId()).isEqualTo("testCandidate");
+        assertThat(goal.shardCount()).isEqualTo(2);
+        assertThat(goal.partitioning()).isEqualTo(Partitioning.HASH);
+        Megaverse coordinatorMegaverse = connection.buildMegaverse(goal.goal());
+        Megaverse workerMegaverse = connection.buildMegaverse(progress.readGoal().goal());
+
+        // Act: Report the result of each shard
+        for (int i = 0; i < 2; i++) {
+            Shard shard = new Shard(i, 2, Partitioning.HASH);
+            assertThat(progress.isComplete(RUN_ID)).isFalse();
+            progress.writeResult(ShardResult.from(RUN_ID, i, succeedAll(shard.select(workerMegaverse))));
+        }
+
+        // Assert: Check the merged result covers every astral object of the coordinator megaverse
+        assertThat(progress.isComplete(RUN_ID)).isTrue();
+        PublishResult merged = ShardResult.merge(coordinatorMegaverse, RUN_ID, progress.readResults(RUN_ID));
+        assertThat(merged.isSuccessful()).isTrue();
+        assertThat(merged.cellResults()).extracting(PublishResult.CellResult::astralObject)
+            .containsExactlyElementsOf(coordinatorMegaverse.astralObjects());
+    }
+
+    @Test
+    public void testMissingShardIsReportedAsUnknown() throws IOException {
+        // Arrange: Only one of the two shards reports its result
+        ShardProgress progress = new ShardProgress(shardDir, 2);
+        progress.reset();
+        Megaverse megaverse = connection.buildMegaverse(GOAL);
+        Shard reportedShard = new Shard(0, 2, Partitioning.ROWS);
+        progress.writeResult(ShardResult.from(RUN_ID, 0, succeedAll(reportedShard.select(megaverse))));
+
+        // Act: Merge the available results
+        PublishResult merged = ShardResult.merge(megaverse, RUN_ID, progress.readResults(RUN_ID));
+
+        // Assert: Check the objects of the missing shard can be re-driven
+        assertThat(progress.isComplete(RUN_ID)).isFalse();
+        assertThat(merged.failed()).isNotEmpty()
+            .allMatch(cellResult -> cellResult.outcome() == PublishResult.Outcome.UNKNOWN && cellResult.attempts() == 0)
+            .extracting(cellResult -> cellResult.astralObject().getRow()).containsOnly(2);
+        assertThat(merged.succeeded()).hasSize(megaverse.astralObjects().size() - merged.failed().size());
+
+        // Act & Assert: Check a reset removes the previous results
+        progress.reset();
+        assertThat(progress.readResults(RUN_ID)).isEmpty();
+        assertThat(progress.hasGoal()).isFalse();
+    }
+
+    @Test
+    public void testResultsOfOtherRunsAreIgnored() throws IOException {
+        // Arrange: A worker of a previous run reports every shard after the reset of the current run
+        ShardProgress progress = new ShardProgress(shardDir, 2);
+        progress.reset();
+        Megaverse megaverse = connection.buildMegaverse(GOAL);
+        for (int i = 0; i < 2; i++) {
+            Shard shard = new Shard(i, 2, Partitioning.ROWS);
+            progress.writeResult(ShardResult.from(STALE_RUN_ID, i, succeedAll(shard.select(megaverse))));
+        }
+
+        // Act: Merge the results of the current run, also passing a stale result explicitly
+        PublishResult merged = ShardResult.merge(megaverse, RUN_ID, progress.readResults(STALE_RUN_ID));
+
+        // Assert: Check the stale results neither complete the current run nor count as published
+        assertThat(progress.isComplete(STALE_RUN_ID)).isTrue();
+        assertThat(progress.isComplete(RUN_ID)).isFalse();
+        assertThat(progress.readResults(RUN_ID)).isEmpty();
+        assertThat(merged.succeeded()).isEmpty();
+        assertThat(merged.failed()).hasSameSizeAs(megaverse.astralObjects())
+            .allMatch(cellResult -> cellResult.outcome() == PublishResult.Outcome.UNKNOWN);
+    }
+
+    @Test
+    public void testInvalidShardCount() {
+        assertThatThrownBy(() -> new ShardProgress(shardDir, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,66 @@
+package com.crossmint.challenge.sharding;
+
+import com.crossmint.challenge.connectors.MegaverseConnection;
+import com.crossmint.challenge.model.AstralObject;
+import com.crossmint.challenge.model.Megaverse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ShardTest {
+
+    private Megaverse buildCheckeredMegaverse(int rows, int columns) {
+        String[][] goalMatrix = new String[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                goalMatrix[i][j] = (i + j) % 2 == 0 ? "POLYANET" : "BLUE_SOLOON";
+            }
+        }
+        return new MegaverseConnection("testCandidate").buildMegaverse(goalMatrix);
+    }
+
+    @Test
+    public void testShardsAreDisjointAndCoverTheMegaverse() {
+        // Arrange: Build a megaverse whose rows are not a multiple of the shard count.
+        Megaverse megaverse = buildCheckeredMegaverse(11, 7);
+
+        for (Partitioning partitioning : Partitioning.values()) {
+            // Act: Select the astral objects of each shard
+            List<AstralObject> allSelected = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                Shard shard = new Shard(i, 3, partitioning);
+                List<AstralObject> selected = shard.select(megaverse);
+                assertThat(selected).isNotEmpty();
+                assertThat(selected).allMatch(astralObject -> shard.owns(astralObject.getRow(), astralObject.getColumn(), 11));
+                allSelected.addAll(selected);
+            }
+
+            // Assert: Check every astral object is selected by exactly one shard
+            assertThat(allSelected).containsExactlyInAnyOrderElementsOf(megaverse.astralObjects());
+        }
+    }
+
+    @Test
+    public void testRowsPartitioningTakesContiguousRowRanges() {
+        // Arrange: Build a megaverse with 10 rows split into 4 shards.
+        Megaverse megaverse = buildCheckeredMegaverse(10, 3);
+
+        // Act & Assert: Check each shard takes its own row range
+        assertThat(new Shard(0, 4, Partitioning.ROWS).select(megaverse)).extracting(AstralObject::getRow).containsOnly(0, 1, 2);
+        assertThat(new Shard(1, 4, Partitioning.ROWS).select(megaverse)).extracting(AstralObject::getRow).containsOnly(3, 4);
+        assertThat(new Shard(2, 4, Partitioning.ROWS).select(megaverse)).extracting(AstralObject::getRow).containsOnly(5, 6, 7);
+        assertThat(new Shard(3, 4, Partitioning.ROWS).select(megaverse)).extracting(AstralObject::getRow).containsOnly(8, 9);
+    }
+
+    @Test
+    public void testInvalidShards() {
+        assertThatThrownBy(() -> new Shard(0, 0, Partitioning.ROWS))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Shard(3, 3, Partitioning.HASH))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
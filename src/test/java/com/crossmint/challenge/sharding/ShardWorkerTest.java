@@ -0,0 +1,65 @@
+package com.crossmint.challenge.sharding;
+
+import com.crossmint.challenge.connectors.MegaverseConnection;
+import com.crossmint.challenge.connectors.VirtualScheduler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ShardWorkerTest {
+
+    private static final String[][] GOAL = {
+        {"POLYANET", "SPACE"},
+        {"SPACE", "POLYANET"}
+    };
+
+    @TempDir
+    private Path shardDir;
+    private final MegaverseConnection connection = new MegaverseConnection("testCandidate");
+
+    @Test
+    public void testWorkerGivesUpWhenTheGoalIsNotWritten() throws IOException {
+        // Arrange: No coordinator writes the goal, wait for it in simulated time
+        ShardProgress progress = new ShardProgress(shardDir, 2);
+        progress.reset();
+        ShardWorker worker = new ShardWorker(connection, progress, new Shard(0, 2, Partitioning.ROWS), ShardWorker.DEFAULT_GOAL_TIMEOUT);
+        VirtualScheduler scheduler = new VirtualScheduler(42);
+        worker.setScheduler(scheduler);
+
+        // Act & Assert: Check the worker does not wait forever
+        assertThatThrownBy(worker::run).isInstanceOf(IOException.class).hasMessageContaining("Timed out");
+        assertThat(scheduler.currentTimeMillis()).isGreaterThanOrEqualTo(ShardWorker.DEFAULT_GOAL_TIMEOUT.toMillis());
+    }
+
+    @Test
+    public void testWorkerRefusesGoalSplitDifferently() throws IOException {
+        // Arrange: The coordinator splits the goal in 2 shards but the worker was started with 3
+        ShardProgress progress = new ShardProgress(shardDir, 3);
+        progress.reset();
+        progress.writeGoal(new ShardProgress.Goal("run-1", "testCandidate", 2, Partitioning.ROWS, GOAL));
+        ShardWorker worker = new ShardWorker(connection, progress, new Shard(0, 3, Partitioning.ROWS), Duration.ZERO);
+
+        // Act & Assert: Check the worker neither publishes nor reports a result
+        assertThatThrownBy(worker::run).isInstanceOf(IOException.class).hasMessageContaining("not matching");
+        assertThat(progress.readResults("run-1")).isEmpty();
+    }
+
+    @Test
+    public void testWorkerRefusesGoalOfAnotherCandidate() throws IOException {
+        // Arrange: The coordinator publishes the map of another candidate
+        ShardProgress progress = new ShardProgress(shardDir, 2);
+        progress.reset();
+        progress.writeGoal(new ShardProgress.Goal("run-1", "otherCandidate", 2, Partitioning.ROWS, GOAL));
+        ShardWorker worker = new ShardWorker(connection, progress, new Shard(0, 2, Partitioning.ROWS), Duration.ZERO);
+
+        // Act & Assert: Check the worker does not publish the map under its own candidate
+        assertThatThrownBy(worker::run).isInstanceOf(IOException.class).hasMessageContaining("otherCandidate");
+        assertThat(progress.readResults("run-1")).isEmpty();
+    }
+}